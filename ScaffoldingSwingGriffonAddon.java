@@ -14,8 +14,17 @@
  * limitations under the License.
  */
 
+import griffon.core.GriffonApplication;
+import griffon.plugins.scaffolding.AsyncValidator;
+import griffon.plugins.scaffolding.DialogPool;
+import griffon.plugins.scaffolding.ScaffoldingPrewarmer;
 import griffon.plugins.scaffolding.factories.ErrorDecoratorFactory;
+import griffon.plugins.scaffolding.factories.FormErrorDecoratorFactory;
+import griffon.plugins.scaffolding.monitor.EdtWatchdog;
+import griffon.plugins.scaffolding.monitor.EventTracer;
+import griffon.plugins.scaffolding.monitor.ScaffoldingMetrics;
 import griffon.util.ApplicationHolder;
+import griffon.util.RunnableWithArgs;
 import org.codehaus.griffon.runtime.core.AbstractGriffonAddon;
 
 /**
@@ -25,5 +34,33 @@ public class ScaffoldingSwingGriffonAddon extends AbstractGriffonAddon {
     public ScaffoldingSwingGriffonAddon() {
         super(ApplicationHolder.getApplication());
         factories.put("errorDecorator", new ErrorDecoratorFactory());
+        factories.put("formErrorDecorator", new FormErrorDecoratorFactory());
+        events.put(GriffonApplication.Event.SHUTDOWN_START.getName(), new RunnableWithArgs() {
+            public void run(Object[] args) {
+                AsyncValidator.shutdown();
+                DialogPool.clear();
+                ScaffoldingMetrics.uninstall();
+                EdtWatchdog.uninstall();
+                EventTracer.uninstall();
+            }
+        });
+    }
+
+    public void addonInit(GriffonApplication app) {
+        if (ScaffoldingMetrics.isEnabled()) {
+            ScaffoldingMetrics.install();
+        }
+        if (EdtWatchdog.isEnabled()) {
+            EdtWatchdog.install();
+        }
+        if (EventTracer.isEnabled()) {
+            EventTracer.install();
+        }
+    }
+
+    public void addonPostInit(GriffonApplication app) {
+        if (ScaffoldingPrewarmer.isEnabled()) {
+            new ScaffoldingPrewarmer(app).start();
+        }
     }
 }
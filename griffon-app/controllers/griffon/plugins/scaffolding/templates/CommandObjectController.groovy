@@ -1,10 +1,18 @@
 package griffon.plugins.scaffolding.templates
 
 import griffon.builder.css.CSSDecorator
+import griffon.plugins.scaffolding.AsyncValidator
+import griffon.plugins.scaffolding.DialogPool
+import griffon.plugins.scaffolding.FormPlan
 import griffon.plugins.scaffolding.ScaffoldingContext
 import griffon.plugins.scaffolding.ScaffoldingUtils
+import griffon.plugins.scaffolding.SwingScaffoldingContext
+import griffon.plugins.scaffolding.monitor.Monitor
 import griffon.transform.Threading
+import org.jdesktop.jxlayer.JXLayer
 
+import javax.swing.JDialog
+import java.awt.BorderLayout
 import java.awt.Window
 
 class CommandObjectController {
@@ -14,58 +22,206 @@ class CommandObjectController {
     ScaffoldingContext scaffoldingContext
 
     protected dialog
+    protected DialogPool.Form shownForm
 
     @Threading(Threading.Policy.INSIDE_UITHREAD_SYNC)
     void show(Window window) {
         window = window ?: Window.windows.find { it.focused }
-        if (!dialog || dialog.owner != window) {
+        boolean decorate = true
+        if (isReuse()) {
+            decorate = reuseDialog(window)
+        } else if (!dialog || dialog.owner != window) {
             app.windowManager.hide(dialog)
-            model.title = scaffoldingContext.resolveMessage('title',
-                ScaffoldingUtils.getNaturalName(scaffoldingContext.validateable))
-            dialog = builder.dialog(
-                owner: window,
-                title: model.title,
-                resizable: model.resizable,
-                modal: model.modal) {
-                container(view.content)
-            }
-            if (model.width > 0 && model.height > 0) {
-                dialog.preferredSize = [model.width, model.height]
-            }
-            dialog.pack()
+            dialog = createDialog(window)
         }
         int x = window.x + (window.width - dialog.width) / 2
         int y = window.y + (window.height - dialog.height) / 2
         dialog.setLocation(x, y)
-        execInsideUIAsync {
-            CSSDecorator.decorate('validation', dialog)
+        if (decorate) {
+            execInsideUIAsync {
+                Monitor.Scope scope = Monitor.begin(Monitor.Operation.CSS_DECORATE, dialog.getClass())
+                try {
+                    CSSDecorator.decorate('validation', dialog)
+                } finally {
+                    Monitor.end(scope)
+                }
+            }
         }
         app.windowManager.show(dialog)
     }
 
+    protected createDialog(Window window) {
+        model.title = scaffoldingContext.resolveMessage('title',
+            ScaffoldingUtils.getNaturalName(scaffoldingContext.validateable))
+        def newDialog = builder.dialog(
+            owner: window,
+            title: model.title,
+            resizable: model.resizable,
+            modal: model.modal) {
+            container(formComponent())
+        }
+        if (model.width > 0 && model.height > 0) {
+            newDialog.preferredSize = [model.width, model.height]
+        }
+        newDialog.pack()
+        newDialog
+    }
+
+    /**
+     * Returns the component placed in the dialog: the content panel, or the
+     * layer wrapping it when decorations are painted by a form overlay.
+     */
+    protected formComponent() {
+        view.content.parent instanceof JXLayer ? view.content.parent : view.content
+    }
+
+    /**
+     * Forms are only pooled by Swing contexts, which can hand their bindings
+     * over to a later group.
+     */
+    protected boolean isReuse() {
+        model.reuse && scaffoldingContext instanceof SwingScaffoldingContext
+    }
+
+    /**
+     * Returns the form shown by this group: one taken from the pool when the
+     * view was built, or else the one the view has built.
+     */
+    protected DialogPool.Form form() {
+        if (!shownForm) {
+            shownForm = builder.variables.pooledForm ?: new DialogPool.Form(
+                FormPlan.of(scaffoldingContext), view.content, formComponent(), view.okButton, view.cancelButton)
+        }
+        shownForm
+    }
+
+    /**
+     * Shows the form in the dialog it was last shown in, creating a dialog
+     * only for a new owner. Returns whether the whole dialog must be
+     * decorated with CSS.
+     */
+    protected boolean reuseDialog(Window window) {
+        DialogPool.Form form = form()
+        boolean attached = false
+        if (form.dialog && form.dialog.owner != window) {
+            form.dialog.contentPane.removeAll()
+            form.dialog.dispose()
+            form.dialog = null
+        }
+        if (!form.dialog) {
+            // pooled dialogs outlive this group, so they are not created by its builder
+            form.dialog = new JDialog(window)
+            attachDialog(form.dialog)
+            attached = true
+        }
+        dialog = form.dialog
+
+        // the form may have been scrolled, focused or decorated by a previous round
+        DialogPool.reset(dialog)
+        scaffoldingContext.refreshFieldStates()
+        Collection changed = applyErrorCss()
+        if (!attached) decorate(changed)
+        attached
+    }
+
+    protected void attachDialog(pooled) {
+        model.title = scaffoldingContext.resolveMessage('title',
+            ScaffoldingUtils.getNaturalName(scaffoldingContext.validateable))
+        pooled.title = model.title
+        pooled.resizable = model.resizable
+        pooled.modal = model.modal
+        pooled.contentPane.add(form().component, BorderLayout.CENTER)
+        if (model.width > 0 && model.height > 0) {
+            pooled.preferredSize = [model.width, model.height]
+        }
+        pooled.pack()
+    }
+
+    /**
+     * Returns the form, built or not yet shown, to the pool of its command
+     * object type, before the context of this group is disposed.
+     */
+    protected void releaseDialog() {
+        DialogPool.Form form = form()
+        if (form.dialog) app.windowManager.hide(form.dialog)
+        form.detach(scaffoldingContext)
+        DialogPool.of(scaffoldingContext.validateable.getClass()).release(form, model.poolSize)
+        shownForm = null
+        dialog = null
+    }
+
+    void mvcGroupDestroy() {
+        if (isReuse()) execInsideUISync { releaseDialog() }
+    }
+
     @Threading(Threading.Policy.INSIDE_UITHREAD_SYNC)
     def cancel = { evt = null ->
+        if (scaffoldingContext instanceof SwingScaffoldingContext) scaffoldingContext.cancelPendingValidation()
         app.windowManager.hide(dialog)
         scaffoldingContext.validateable.validate()
-        dialog = null
+        if (scaffoldingContext instanceof SwingScaffoldingContext) scaffoldingContext.refreshFieldStates()
+        if (!isReuse()) dialog = null
     }
 
     @Threading(Threading.Policy.INSIDE_UITHREAD_SYNC)
     def ok = { evt = null ->
+        if (scaffoldingContext instanceof SwingScaffoldingContext) {
+            scaffoldingContext.commitPendingUpdates()
+            if (scaffoldingContext.asyncValidation) {
+                scaffoldingContext.validateAsync({ boolean valid ->
+                    valid ? close() : displayErrors()
+                } as AsyncValidator.Callback)
+                return
+            }
+        }
+
+        if (validate()) {
+            close()
+        } else {
+            displayErrors()
+        }
+    }
+
+    protected boolean validate() {
+        if (scaffoldingContext instanceof SwingScaffoldingContext) return scaffoldingContext.validate()
         scaffoldingContext.validateable.errors.clearAllErrors()
         scaffoldingContext.validateable.validate()
-        if (!scaffoldingContext.validateable.errors.hasErrors()) {
-            app.windowManager.hide(dialog)
-            dialog = null
-        } else {
-            scaffoldingContext.applyCssOnError('error')
-            execInsideUIAsync {
-                CSSDecorator.decorate('validation', dialog)
-                dialog.repaint()
-            }
-            for (errorMessage in scaffoldingContext.resolveErrorMessages()) {
-                println errorMessage
+        !scaffoldingContext.validateable.errors.hasErrors()
+    }
+
+    /**
+     * Applies the error class and returns the components to restyle.
+     */
+    protected Collection applyErrorCss() {
+        if (scaffoldingContext instanceof SwingScaffoldingContext) return scaffoldingContext.applyCssOnErrorChanged('error')
+        scaffoldingContext.applyCssOnError('error')
+        dialog ? [dialog] : []
+    }
+
+    protected void decorate(Collection components) {
+        if (!components) return
+        execInsideUIAsync {
+            Monitor.Scope scope = Monitor.begin(Monitor.Operation.CSS_DECORATE, 'components')
+            try {
+                for (component in components) {
+                    CSSDecorator.decorate('validation', component)
+                    component.repaint()
+                }
+            } finally {
+                Monitor.end(scope)
             }
         }
     }
+
+    protected void close() {
+        app.windowManager.hide(dialog)
+        if (!isReuse()) dialog = null
+    }
+
+    protected void displayErrors() {
+        decorate(applyErrorCss())
+        for (errorMessage in scaffoldingContext.resolveErrorMessages()) {
+            println errorMessage
+        }
+    }
 }
\ No newline at end of file
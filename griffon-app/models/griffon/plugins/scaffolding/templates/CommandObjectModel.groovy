@@ -1,9 +1,15 @@
 package griffon.plugins.scaffolding.templates
 
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults
+import static griffon.util.ConfigUtils.getConfigValueAsBoolean
+import static griffon.util.ConfigUtils.getConfigValueAsInt
+
 class CommandObjectModel {
     @Bindable String title
     @Bindable int width = 0
     @Bindable int height = 0
     @Bindable boolean resizable = true
     @Bindable boolean modal = true
+    @Bindable boolean reuse = getConfigValueAsBoolean(getUiDefaults(), 'dialog.reuse', false)
+    @Bindable int poolSize = getConfigValueAsInt(getUiDefaults(), 'dialog.poolSize', 2)
 }
@@ -1,21 +1,62 @@
 package griffon.plugins.scaffolding.templates
 
-panel(id: 'content') {
-    migLayout(layoutConstraints: 'wrap 2', columnConstraints: '[left][left, grow]')
-    scaffoldingContext.validateable.constrainedProperties().each { propertyName, constrainedProperty ->
-        if (!constrainedProperty.display) return
-        setVariable('propertyName', propertyName)
-        setVariable('constrainedProperty', constrainedProperty)
-        Class labelerTemplate = scaffoldingContext.resolveLabeler(propertyName)
-        build(labelerTemplate)
-        Class widgetTemplate = scaffoldingContext.resolveWidget(propertyName)
-        build(widgetTemplate)
+import griffon.plugins.scaffolding.DialogPool
+import griffon.plugins.scaffolding.FormPlan
+import griffon.plugins.scaffolding.SwingScaffoldingContext
+import griffon.plugins.scaffolding.factories.FormErrorDecoratorFactory
+import griffon.plugins.scaffolding.monitor.Monitor
+
+def form = {
+    panel(id: 'content') {
+        migLayout(layoutConstraints: 'wrap 2', columnConstraints: '[left][left, grow]')
+        Map constrainedProperties = scaffoldingContext.validateable.constrainedProperties()
+        FormPlan.of(scaffoldingContext).entries.each { FormPlan.Entry entry ->
+            setVariable('propertyName', entry.propertyName)
+            setVariable('constrainedProperty', constrainedProperties[entry.propertyName])
+            Monitor.Scope scope = Monitor.begin(Monitor.Operation.TEMPLATE_BUILD, entry.propertyName)
+            try {
+                build(entry.labelerTemplate)
+                build(entry.widgetTemplate)
+            } finally {
+                Monitor.end(scope)
+            }
+        }
+        button(cancelAction, id: 'cancelButton', constraints: 'skip, split 2, tag cancel')
+        button(okAction, id: 'okButton', constraints: 'tag ok')
+
+        keyStrokeAction(component: current,
+            keyStroke: 'ESCAPE',
+            condition: 'in focused window',
+            action: cancelAction)
     }
-    button(cancelAction, constraints: 'skip, split 2, tag cancel')
-    button(okAction, constraints: 'tag ok')
+}
 
-    keyStrokeAction(component: current,
+DialogPool.Form pooledForm = null
+if (variables.model?.reuse && scaffoldingContext instanceof SwingScaffoldingContext) {
+    pooledForm = DialogPool.of(scaffoldingContext.validateable.getClass()).acquire(FormPlan.of(scaffoldingContext))
+}
+
+if (pooledForm) {
+    // a form released by an earlier group; show this group's command object in it
+    pooledForm.attach(scaffoldingContext)
+    pooledForm.cancelButton.action = cancelAction
+    pooledForm.okButton.action = okAction
+    keyStrokeAction(component: pooledForm.content,
         keyStroke: 'ESCAPE',
         condition: 'in focused window',
         action: cancelAction)
-}
\ No newline at end of file
+    setVariable('content', pooledForm.content)
+    setVariable('pooledForm', pooledForm)
+} else {
+    Monitor.Scope formScope = Monitor.begin(Monitor.Operation.FORM_BUILD, scaffoldingContext.validateable.getClass())
+    try {
+        if (FormErrorDecoratorFactory.isFormOverlay()) {
+            // decorations of every field are painted by a single layer wrapping the form
+            formErrorDecorator(id: 'formLayer', form)
+        } else {
+            form()
+        }
+    } finally {
+        Monitor.end(formScope)
+    }
+}
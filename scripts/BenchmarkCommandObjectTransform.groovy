@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.Phases
+
+/**
+ * Compiles a synthetic set of command objects with and without the
+ * {@code @CommandObject} annotation and reports the time spent in the
+ * transformation.<p>
+ * Usage: griffon benchmark-command-object-transform [--count=500] [--iterations=5]
+ *
+ * @author Andres Almiray
+ */
+
+includeTargets << griffonScript('_GriffonCompile')
+
+target(name: 'benchmarkCommandObjectTransform', prehook: null, posthook: null,
+    description: 'Measures the compile time cost of the command object AST transformation') {
+    depends(compile)
+
+    int count = (argsMap.count ?: 500) as int
+    int iterations = Math.max(1, (argsMap.iterations ?: 5) as int)
+
+    List<String> plainSources = (0..<count).collect { syntheticCommandObject(it, false) }
+    List<String> annotatedSources = (0..<count).collect { syntheticCommandObject(it, true) }
+
+    // the first rounds load the compiler and the transformation
+    compileSyntheticSources(plainSources)
+    compileSyntheticSources(annotatedSources)
+
+    List<Long> plain = []
+    List<Long> annotated = []
+    iterations.times {
+        plain << compileSyntheticSources(plainSources)
+        annotated << compileSyntheticSources(annotatedSources)
+    }
+
+    long plainMedian = median(plain)
+    long annotatedMedian = median(annotated)
+    long transform = Math.max(0L, annotatedMedian - plainMedian)
+
+    println """
+Command object AST transformation benchmark
+${'-' * 60}
+Classes:                 ${count}
+Iterations:              ${iterations}
+Plain compile (median):  ${millis(plainMedian)} ms
+With @CommandObject:     ${millis(annotatedMedian)} ms
+Transformation:          ${millis(transform)} ms (${String.format('%.3f', transform / 1000000d / count)} ms per class)
+${'-' * 60}"""
+}
+
+setDefaultTarget('benchmarkCommandObjectTransform')
+
+syntheticCommandObject = { int index, boolean annotated ->
+    """package benchmark.scaffolding
+${annotated ? '@griffon.transform.CommandObject' : ''}
+class Synthetic${index}CommandObject {
+    String name
+    String description
+    int quantity = 1
+    long total
+    double ratio
+    boolean active
+    Integer boxedQuantity
+    Long boxedTotal
+    Date createdOn
+
+    static constraints = {
+        name(blank: false, maxSize: 40)
+        quantity(range: 1..100)
+        ratio(min: 0d, max: 1d)
+    }
+}
+"""
+}
+
+compileSyntheticSources = { List<String> sources ->
+    ClassLoader parent = binding.variables.classLoader ?: Thread.currentThread().contextClassLoader
+    CompilerConfiguration configuration = new CompilerConfiguration()
+    GroovyClassLoader loader = new GroovyClassLoader(parent, configuration)
+    [griffonSettings.classesDir, griffonSettings.pluginClassesDir].each { File dir ->
+        if (dir?.exists()) loader.addURL(dir.toURI().toURL())
+    }
+    CompilationUnit unit = new CompilationUnit(configuration, null, loader)
+    sources.eachWithIndex { String source, int index ->
+        unit.addSource("Synthetic${index}CommandObject.groovy", source)
+    }
+    long start = System.nanoTime()
+    unit.compile(Phases.CLASS_GENERATION)
+    System.nanoTime() - start
+}
+
+median = { List<Long> values ->
+    List<Long> sorted = values.sort(false)
+    sorted[sorted.size().intdiv(2)]
+}
+
+millis = { long nanos -> String.format('%.1f', nanos / 1000000d) }
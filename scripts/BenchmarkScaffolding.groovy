@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * Compiles the JMH benchmarks found in src/benchmarks and runs them in a
+ * headless, forked JVM.<p>
+ * Usage: griffon benchmark-scaffolding [regexp] [--forks=n] [--iterations=n] [--output=file]
+ *
+ * @author Andres Almiray
+ */
+
+includeTargets << new File("${basedir}/scripts/_ScaffoldingBenchmarks.groovy")
+
+target(name: 'benchmarkScaffolding', prehook: null, posthook: null,
+    description: 'Runs the scaffolding benchmarks') {
+    depends(compileBenchmarks)
+
+    List<String> jmhArgs = []
+    jmhArgs << (argsMap.params ? argsMap.params[0] : 'griffon.plugins.scaffolding.benchmarks.*')
+    if (argsMap.forks) jmhArgs.addAll(['-f', argsMap.forks.toString()])
+    if (argsMap.iterations) jmhArgs.addAll(['-i', argsMap.iterations.toString()])
+    if (argsMap.output) jmhArgs.addAll(['-rf', 'json', '-rff', argsMap.output.toString()])
+
+    ant.java(classname: 'org.openjdk.jmh.Main', fork: true, failonerror: false,
+        classpathref: 'scaffolding.benchmark.runtime.classpath', resultproperty: 'scaffolding.benchmark.result') {
+        jvmarg(value: '-Djava.awt.headless=true')
+        jmhArgs.each { arg(value: it) }
+    }
+    int result = (ant.project.properties['scaffolding.benchmark.result'] ?: 0) as int
+    if (result != 0) {
+        event 'StatusError', ["Scaffolding benchmarks failed with exit code ${result}"]
+        exit result
+    }
+}
+
+setDefaultTarget('benchmarkScaffolding')
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * Builds and paints scaffolded forms of increasing size inside a headless
+ * instance of the application and reports build time, first paint time,
+ * component count and retained heap per form size.<p>
+ * Usage: griffon benchmark-scaffolding-forms [--sizes=10,50,100,250,500,1000] [--iterations=5] [--output=file.csv]
+ *
+ * @author Andres Almiray
+ */
+
+includeTargets << griffonScript('_GriffonBootstrap')
+includeTargets << new File("${basedir}/scripts/_ScaffoldingBenchmarks.groovy")
+
+target(name: 'benchmarkScaffoldingForms', prehook: null, posthook: null,
+    description: 'Measures how scaffolded forms scale with their number of fields') {
+    System.setProperty('java.awt.headless', 'true')
+    depends(compileBenchmarks, bootstrap)
+
+    ClassLoader classLoader = new URLClassLoader([benchmarkClassesDir.toURI().toURL()] as URL[], griffonApp.class.classLoader)
+    def benchmark = classLoader.loadClass('griffon.plugins.scaffolding.benchmarks.FormBuildBenchmark').newInstance(griffonApp)
+    if (argsMap.iterations) benchmark.iterations = argsMap.iterations as int
+    List<Integer> sizes = argsMap.sizes ? argsMap.sizes.toString().split(',')*.trim()*.toInteger() : benchmark.DEFAULT_SIZES
+
+    println """
+Scaffolded form benchmark (medians of ${benchmark.iterations} iterations)
+${'-' * 64}
+${'Fields'.padLeft(6)} ${'Build (ms)'.padLeft(12)} ${'First paint (ms)'.padLeft(16)} ${'Components'.padLeft(12)} ${'Heap (KB)'.padLeft(12)}
+${'-' * 64}"""
+    List results = []
+    for (int size : sizes) {
+        def result = benchmark.measure(size)
+        results << result
+        println result
+    }
+    println '-' * 64
+
+    if (argsMap.output) {
+        new File(argsMap.output.toString()).withWriter { writer ->
+            writer.writeLine('fields,buildNanos,firstPaintNanos,components,retainedHeapBytes')
+            results.each { r ->
+                writer.writeLine([r.size, r.buildTime, r.firstPaintTime, r.components, r.retainedHeap].join(','))
+            }
+        }
+    }
+}
+
+setDefaultTarget('benchmarkScaffoldingForms')
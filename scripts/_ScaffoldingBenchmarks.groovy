@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * Compiles the benchmarks found in src/benchmarks.
+ *
+ * @author Andres Almiray
+ */
+
+import groovy.grape.Grape
+
+includeTargets << griffonScript('_GriffonCompile')
+
+benchmarkSrcDir = new File("${basedir}/src/benchmarks")
+benchmarkClassesDir = new File("${projectWorkDir}/benchmark-classes/${griffonAppName}")
+jmhVersion = '1.0'
+
+// JMH is resolved here rather than in BuildConfig so that it is never
+// exported to applications that install the plugin
+resolveJmh = {
+    Grape.resolve([autoDownload: true, classLoader: new GroovyClassLoader()],
+        [group: 'org.openjdk.jmh', module: 'jmh-core', version: jmhVersion],
+        [group: 'org.openjdk.jmh', module: 'jmh-generator-annprocess', version: jmhVersion]) as List
+}
+
+target(name: 'compileBenchmarks', prehook: null, posthook: null,
+    description: 'Compiles the scaffolding benchmarks') {
+    depends(compile)
+
+    ant.mkdir(dir: benchmarkClassesDir)
+    ant.path(id: 'scaffolding.benchmark.classpath') {
+        path(refid: 'griffon.compile.classpath')
+        pathelement(location: classesDirPath)
+        pathelement(location: pluginClassesDirPath)
+        resolveJmh().each { URI uri ->
+            pathelement(location: new File(uri).absolutePath)
+        }
+    }
+    // joint compilation; the JMH annotation processor generates the benchmark harness
+    ant.taskdef(name: 'groovyc', classname: 'org.codehaus.groovy.ant.Groovyc')
+    ant.groovyc(srcdir: benchmarkSrcDir, destdir: benchmarkClassesDir,
+        classpathref: 'scaffolding.benchmark.classpath') {
+        javac(source: '1.6', target: '1.6', debug: 'on')
+    }
+    ant.path(id: 'scaffolding.benchmark.runtime.classpath') {
+        path(refid: 'scaffolding.benchmark.classpath')
+        pathelement(location: benchmarkClassesDir)
+    }
+}
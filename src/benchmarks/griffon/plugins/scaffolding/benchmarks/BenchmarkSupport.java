@@ -0,0 +1,120 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.benchmarks;
+
+import griffon.exceptions.GriffonException;
+import griffon.plugins.validation.Validateable;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+import groovy.lang.GroovyClassLoader;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixtures shared by the benchmarks.
+ *
+ * @author Andres Almiray
+ */
+final class BenchmarkSupport {
+    private static final Map<Integer, Class<?>> COMMAND_OBJECTS = new ConcurrentHashMap<Integer, Class<?>>();
+    private static final Map<Integer, Class<?>> MIXED_COMMAND_OBJECTS = new ConcurrentHashMap<Integer, Class<?>>();
+
+    // property declarations and constraints cycled through by mixed command objects
+    private static final String[][] MIXED_PROPERTIES = {
+        {"String", "(blank: false, maxSize: 40)"},
+        {"Integer", "(range: 0..100)"},
+        {"java.util.concurrent.TimeUnit", "(nullable: false)"},
+        {"boolean", "()"},
+        {"String", "(inList: ['red', 'green', 'blue'])"}
+    };
+
+    private BenchmarkSupport() {
+
+    }
+
+    static ConstrainedProperty constrainedProperty(Class<?> owner, String propertyName, Class<?> propertyType) {
+        return new ConstrainedProperty(owner, propertyName, propertyType);
+    }
+
+    /**
+     * Returns a new instance of a command object with the given number of
+     * String properties named {@code property0..propertyN}. The class is
+     * compiled on first use so that it goes through the {@code @CommandObject}
+     * transformation.
+     */
+    static Validateable commandObject(int size) {
+        Class<?> type = COMMAND_OBJECTS.get(size);
+        if (type == null) {
+            type = compileCommandObject(size);
+            COMMAND_OBJECTS.put(size, type);
+        }
+        try {
+            return (Validateable) type.newInstance();
+        } catch (InstantiationException e) {
+            throw new GriffonException(e);
+        } catch (IllegalAccessException e) {
+            throw new GriffonException(e);
+        }
+    }
+
+    /**
+     * Returns the class of a command object with the given number of
+     * properties, cycling through String, number, enum, boolean and inList
+     * properties.
+     */
+    static Class<?> mixedCommandObject(int size) {
+        Class<?> type = MIXED_COMMAND_OBJECTS.get(size);
+        if (type == null) {
+            StringBuilder properties = new StringBuilder();
+            StringBuilder constraints = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                String[] declaration = MIXED_PROPERTIES[i % MIXED_PROPERTIES.length];
+                properties.append("    ").append(declaration[0]).append(' ').append(propertyName(i)).append('\n');
+                constraints.append("        ").append(propertyName(i)).append(declaration[1]).append('\n');
+            }
+            type = compile("MixedCommandObject" + size, properties, constraints);
+            MIXED_COMMAND_OBJECTS.put(size, type);
+        }
+        return type;
+    }
+
+    static String propertyName(int index) {
+        return "property" + index;
+    }
+
+    private static Class<?> compileCommandObject(int size) {
+        StringBuilder properties = new StringBuilder();
+        StringBuilder constraints = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            properties.append("    String ").append(propertyName(i)).append('\n');
+            constraints.append("        ").append(propertyName(i)).append("(blank: false, maxSize: 40)\n");
+        }
+        return compile("BenchmarkCommandObject" + size, properties, constraints);
+    }
+
+    private static Class<?> compile(String className, CharSequence properties, CharSequence constraints) {
+        String source = "@griffon.transform.CommandObject\n" +
+            "class " + className + " {\n" +
+            properties +
+            "    static constraints = {\n" +
+            constraints +
+            "    }\n}\n";
+        GroovyClassLoader classLoader = new GroovyClassLoader(BenchmarkSupport.class.getClassLoader());
+        return classLoader.parseClass(source);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.benchmarks;
+
+import griffon.plugins.scaffolding.FieldState;
+import griffon.plugins.scaffolding.SwingScaffoldingContext;
+import griffon.plugins.scaffolding.decorators.ErrorDecoratorRegistry;
+import griffon.plugins.scaffolding.decorators.FieldErrorDecorator;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single paint of each builtin error decorator into an offscreen
+ * image, with and without errors.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ErrorDecoratorBenchmark {
+    private static final String PROPERTY_NAME = "name";
+
+    @Param({"icon", "mask", "tooltip"})
+    public String decorator;
+
+    @Param({"true", "false"})
+    public boolean errors;
+
+    private FieldErrorDecorator<JComponent> errorDecorator;
+    private SwingScaffoldingContext scaffoldingContext;
+    private ConstrainedProperty constrainedProperty;
+    private FieldState fieldState;
+    private JTextField view;
+    private BufferedImage image;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        errorDecorator = (FieldErrorDecorator<JComponent>) new ErrorDecoratorRegistry(null).create(decorator).get(0);
+        scaffoldingContext = new SwingScaffoldingContext();
+        constrainedProperty = BenchmarkSupport.constrainedProperty(ErrorDecoratorBenchmark.class, PROPERTY_NAME, String.class);
+        fieldState = errors ?
+            new FieldState(PROPERTY_NAME, new String[]{"Property [name] cannot be blank"}, new String[]{"blank"}) :
+            FieldState.valid(PROPERTY_NAME);
+
+        view = new JTextField(20);
+        JPanel panel = new JPanel();
+        panel.add(view);
+        view.setBounds(0, 0, 200, 24);
+        errorDecorator.installUI(view);
+        image = new BufferedImage(240, 40, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @TearDown
+    public void tearDown() {
+        errorDecorator.uninstallUI(view);
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        Graphics2D g2 = image.createGraphics();
+        try {
+            if (errors) {
+                errorDecorator.paintLayerWithErrors(g2, view, scaffoldingContext, constrainedProperty, fieldState);
+            } else {
+                errorDecorator.paintLayerWithNoErrors(g2, view, scaffoldingContext, constrainedProperty, fieldState);
+            }
+        } finally {
+            g2.dispose();
+        }
+        return image;
+    }
+}
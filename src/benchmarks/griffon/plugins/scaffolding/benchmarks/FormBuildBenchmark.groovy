@@ -0,0 +1,191 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.benchmarks
+
+import griffon.builder.css.CSSDecorator
+import griffon.builder.css.CssClass
+import griffon.core.GriffonApplication
+import griffon.plugins.scaffolding.SwingScaffoldingContext
+import griffon.plugins.scaffolding.factories.ErrorDecoratorFactory
+import griffon.plugins.scaffolding.factories.FormErrorDecoratorFactory
+import groovy.swing.SwingBuilder
+import groovy.swing.factory.LayoutFactory
+import net.miginfocom.swing.MigLayout
+
+import javax.swing.JComponent
+import javax.swing.SwingUtilities
+import java.awt.Component
+import java.awt.Container
+import java.awt.Graphics2D
+import java.awt.image.BufferedImage
+import java.lang.management.ManagementFactory
+
+import static com.feature50.clarity.ClarityConstants.CLIENT_PROPERTY_CLASS_KEY
+
+/**
+ * Builds the form of synthetic command objects of increasing size with the
+ * real {@code CommandObjectView} and templates, lays it out and paints it
+ * into an offscreen image, the way {@code CommandObjectController.show}
+ * would before making the dialog visible.<p>
+ * Reports, per form size, the median build and first paint times, the
+ * number of components and the heap retained by one form.
+ *
+ * @author Andres Almiray
+ */
+class FormBuildBenchmark {
+    static final List<Integer> DEFAULT_SIZES = [10, 50, 100, 250, 500, 1000].asImmutable()
+    private static final String VIEW_CLASS = 'griffon.plugins.scaffolding.templates.CommandObjectView'
+
+    final GriffonApplication app
+    int warmups = 2
+    int iterations = 5
+
+    FormBuildBenchmark(GriffonApplication app) {
+        this.app = app
+    }
+
+    List<Result> run(List<Integer> sizes = DEFAULT_SIZES) {
+        sizes.collect { int size -> measure(size) }
+    }
+
+    Result measure(int size) {
+        Class commandObjectType = BenchmarkSupport.mixedCommandObject(size)
+        Class viewClass = Class.forName(VIEW_CLASS, true, getClass().classLoader)
+        warmups.times { sample(commandObjectType, viewClass).dispose() }
+
+        List<Sample> samples = (1..iterations).collect {
+            Sample sample = sample(commandObjectType, viewClass)
+            sample.dispose()
+            sample
+        }
+        new Result(
+            size: size,
+            buildTime: median(samples*.buildTime),
+            firstPaintTime: median(samples*.firstPaintTime),
+            components: samples[0].components,
+            retainedHeap: median(samples*.retainedHeap))
+    }
+
+    private Sample sample(Class commandObjectType, Class viewClass) {
+        long heapBefore = usedHeap()
+        Sample sample = new Sample()
+        SwingUtilities.invokeAndWait {
+            long start = System.nanoTime()
+            sample.scaffoldingContext = new SwingScaffoldingContext()
+            sample.scaffoldingContext.validateable = commandObjectType.newInstance()
+            SwingBuilder builder = createBuilder(sample.scaffoldingContext)
+            builder.build(viewClass)
+            // with a form overlay the content panel is wrapped by its layer
+            JComponent content = builder.variables.formLayer ?: builder.variables.content
+            long built = System.nanoTime()
+
+            CSSDecorator.decorate('validation', content)
+            content.size = content.preferredSize
+            layout(content)
+            BufferedImage image = new BufferedImage(Math.max(1, content.width), Math.max(1, content.height), BufferedImage.TYPE_INT_ARGB)
+            Graphics2D g2 = image.createGraphics()
+            try {
+                content.paint(g2)
+            } finally {
+                g2.dispose()
+            }
+            long painted = System.nanoTime()
+
+            sample.content = content
+            sample.buildTime = built - start
+            sample.firstPaintTime = painted - built
+            sample.components = countComponents(content)
+        }
+        // the form is still referenced by the sample at this point
+        sample.retainedHeap = Math.max(0L, usedHeap() - heapBefore)
+        sample
+    }
+
+    private SwingBuilder createBuilder(SwingScaffoldingContext scaffoldingContext) {
+        SwingBuilder builder = new SwingBuilder()
+        builder.registerFactory('errorDecorator', new ErrorDecoratorFactory())
+        builder.registerFactory('formErrorDecorator', new FormErrorDecoratorFactory())
+        builder.registerFactory('migLayout', new LayoutFactory(MigLayout))
+        builder.addAttributeDelegate { FactoryBuilderSupport fbs, node, Map attributes ->
+            def cssClass = attributes.remove('cssClass')
+            if (cssClass && node instanceof JComponent) {
+                CssClass classes = new CssClass()
+                classes.addAll(cssClass.toString().split(/\s+/))
+                node.putClientProperty(CLIENT_PROPERTY_CLASS_KEY, classes)
+            }
+        }
+        builder.setVariable('app', app)
+        builder.setVariable('scaffoldingContext', scaffoldingContext)
+        builder.setVariable('okAction', builder.action(name: 'Ok'))
+        builder.setVariable('cancelAction', builder.action(name: 'Cancel'))
+        scaffoldingContext.binding = builder
+        builder
+    }
+
+    private static void layout(Component component) {
+        component.doLayout()
+        if (component instanceof Container) {
+            for (Component child : component.components) layout(child)
+        }
+    }
+
+    private static int countComponents(Component component) {
+        int count = 1
+        if (component instanceof Container) {
+            for (Component child : component.components) count += countComponents(child)
+        }
+        count
+    }
+
+    private static long usedHeap() {
+        3.times { System.gc() }
+        ManagementFactory.memoryMXBean.heapMemoryUsage.used
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.sort(false)
+        sorted[sorted.size().intdiv(2)]
+    }
+
+    private static class Sample {
+        SwingScaffoldingContext scaffoldingContext
+        JComponent content
+        long buildTime
+        long firstPaintTime
+        int components
+        long retainedHeap
+
+        void dispose() {
+            SwingUtilities.invokeAndWait { scaffoldingContext.dispose() }
+            content = null
+        }
+    }
+
+    static class Result {
+        int size
+        long buildTime
+        long firstPaintTime
+        int components
+        long retainedHeap
+
+        String toString() {
+            String.format('%6d %12.1f %16.1f %12d %12d',
+                size, buildTime / 1000000d, firstPaintTime / 1000000d, components, retainedHeap.intdiv(1024))
+        }
+    }
+}
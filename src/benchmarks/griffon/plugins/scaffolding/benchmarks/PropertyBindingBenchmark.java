@@ -0,0 +1,120 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.benchmarks;
+
+import griffon.plugins.scaffolding.AtomicValue;
+import griffon.plugins.scaffolding.PropertyBinding;
+import griffon.plugins.scaffolding.UpdatePolicy;
+import griffon.plugins.scaffolding.atoms.IntegerValue;
+import griffon.plugins.scaffolding.atoms.StringValue;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update throughput of a {@code PropertyBinding} in both directions for the
+ * most common sources. Components are never realized, which lets the
+ * benchmark drive them from its own thread.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PropertyBindingBenchmark {
+    private static final int VALUES = 64;
+
+    @Param({"text", "combo", "slider", "spinner"})
+    public String source;
+
+    private JComponent component;
+    private AtomicValue holder;
+    private PropertyBinding binding;
+    private Object[] values;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        values = new Object[VALUES];
+        String propertyName;
+        if ("text".equals(source) || "combo".equals(source)) {
+            for (int i = 0; i < VALUES; i++) values[i] = "value" + i;
+            holder = new StringValue();
+            if ("text".equals(source)) {
+                component = new JTextField();
+                propertyName = "text";
+            } else {
+                component = new JComboBox(values);
+                propertyName = "selectedItem";
+            }
+        } else {
+            for (int i = 0; i < VALUES; i++) values[i] = i;
+            holder = new IntegerValue();
+            if ("slider".equals(source)) {
+                component = new JSlider(0, VALUES);
+            } else {
+                component = new JSpinner(new SpinnerNumberModel(0, 0, VALUES, 1));
+            }
+            propertyName = "value";
+        }
+        binding = PropertyBinding.create(component, propertyName, holder,
+            BenchmarkSupport.constrainedProperty(PropertyBindingBenchmark.class, source, holder.getValueType()),
+            UpdatePolicy.IMMEDIATE, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        binding.dispose();
+    }
+
+    /**
+     * The user edits the component; the value is pushed to the holder.
+     */
+    @Benchmark
+    public Object sourceToTarget() {
+        Object value = nextValue();
+        if (component instanceof JTextField) {
+            ((JTextField) component).setText((String) value);
+        } else if (component instanceof JComboBox) {
+            ((JComboBox) component).setSelectedItem(value);
+        } else if (component instanceof JSlider) {
+            ((JSlider) component).setValue((Integer) value);
+        } else {
+            ((JSpinner) component).setValue(value);
+        }
+        return holder.getValue();
+    }
+
+    /**
+     * The command object changes; the value is pushed to the component.
+     */
+    @Benchmark
+    public Object targetToSource() {
+        holder.setValue(nextValue());
+        return component;
+    }
+
+    private Object nextValue() {
+        index = (index + 1) % VALUES;
+        return values[index];
+    }
+}
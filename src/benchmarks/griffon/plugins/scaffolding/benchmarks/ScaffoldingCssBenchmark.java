@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.benchmarks;
+
+import griffon.plugins.scaffolding.SwingScaffoldingContext;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JTextField;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSS class operations of {@code SwingScaffoldingContext} over forms of
+ * increasing size.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ScaffoldingCssBenchmark {
+    private static final String CSS_CLASS = "highlight";
+
+    @Param({"5", "20", "80"})
+    public int size;
+
+    private SwingScaffoldingContext scaffoldingContext;
+
+    @Setup
+    public void setUp() {
+        scaffoldingContext = new SwingScaffoldingContext();
+        scaffoldingContext.setValidateable(BenchmarkSupport.commandObject(size));
+        for (int i = 0; i < size; i++) {
+            String propertyName = BenchmarkSupport.propertyName(i);
+            JTextField editor = new JTextField();
+            scaffoldingContext.getFormIndex().register(propertyName, new JLabel(propertyName), editor, editor);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scaffoldingContext.dispose();
+    }
+
+    /**
+     * Adds and removes a class on every field; every component changes.
+     */
+    @Benchmark
+    public int addAndRemove() {
+        Collection<JComponent> added = scaffoldingContext.addCssChanged(CSS_CLASS);
+        Collection<JComponent> removed = scaffoldingContext.removeCssChanged(CSS_CLASS);
+        return added.size() + removed.size();
+    }
+
+    @Benchmark
+    public Collection<JComponent> toggle() {
+        return scaffoldingContext.toggleCssChanged(CSS_CLASS);
+    }
+
+    /**
+     * Re-applies the error classes to an unchanged form; no component changes.
+     */
+    @Benchmark
+    public Collection<JComponent> applyOnErrorUnchanged() {
+        return scaffoldingContext.applyCssOnErrorChanged(CSS_CLASS);
+    }
+}
@@ -21,10 +21,14 @@ import griffon.plugins.scaffolding.atoms.EnumValue;
 import org.codehaus.groovy.ast.*;
 import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
 import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
 import org.codehaus.groovy.control.SourceUnit;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -44,8 +48,68 @@ public class SwingCommandObjectASTTransformation extends CommandObjectASTTransfo
     private static final String SET_VALUE = "setValue";
     private static final String SET_PRIMITIVE = "setPrimitive";
 
-    private static final ClassNode ENUM_ATOMIC_VALUE = makeClassSafe(EnumValue.class);
-    private static final Map<ClassNode, ClassNode> SUPPORTED_ATOM_TYPES = new LinkedHashMap<ClassNode, ClassNode>();
+    private static final String GET = "get";
+    private static final String SET = "set";
+    private static final String ATOMS_PACKAGE = "griffon.plugins.scaffolding.atoms.";
+    private static final String BATCH_UPDATE_CLASS = "griffon.plugins.scaffolding.BatchUpdate";
+    private static final String BATCH_UPDATE = "batchUpdate";
+    private static final String RUN = "run";
+    private static final String APPLY = "apply";
+    private static final String UPDATES_ARG = "updates";
+    private static final String VALUES_ARG = "values";
+    private static final String FORM_SCHEMA_CLASS = "griffon.plugins.scaffolding.FormSchema";
+    private static final String SCHEMA_FIELD = "$formSchema";
+    private static final String DEFINE = "define";
+    private static final String NAME = "name";
+    private static final String TYPE = "type";
+    private static final String HOLDER = "holder";
+    private static final String HOLDER_TYPE = "holderType";
+
+    private static final Map<String, PrimitiveAtom> PRIMITIVE_ATOM_TYPES;
+
+    static {
+        Map<String, PrimitiveAtom> primitiveAtomTypes = new HashMap<String, PrimitiveAtom>();
+        primitiveAtomTypes.put(ClassHelper.int_TYPE.getName(), new PrimitiveAtom("PrimitiveIntegerValue", "Int"));
+        primitiveAtomTypes.put(ClassHelper.long_TYPE.getName(), new PrimitiveAtom("PrimitiveLongValue", "Long"));
+        primitiveAtomTypes.put(ClassHelper.double_TYPE.getName(), new PrimitiveAtom("PrimitiveDoubleValue", "Double"));
+        primitiveAtomTypes.put(ClassHelper.boolean_TYPE.getName(), new PrimitiveAtom("PrimitiveBooleanValue", "Boolean"));
+        PRIMITIVE_ATOM_TYPES = Collections.unmodifiableMap(primitiveAtomTypes);
+    }
+
+    /**
+     * Atom type for each supported property type, keyed by type name.
+     * Initialized on first use by the class loader, which makes it safe
+     * for transformations running in parallel.
+     */
+    private static final class AtomTypes {
+        private static final Map<String, Class> SUPPORTED = initialize();
+
+        private static Map<String, Class> initialize() {
+            Map<String, Class> supported = new HashMap<String, Class>();
+            for (Map.Entry<Class, Class> entry : ScaffoldingUtils.initializeAtomTypes().entrySet()) {
+                supported.put(entry.getKey().getName(), entry.getValue());
+            }
+            return Collections.unmodifiableMap(supported);
+        }
+    }
+
+    /**
+     * Holder with unboxed accessors for a primitive property type. Holders
+     * are referenced by name as they are only needed by the compiled code.
+     */
+    private static final class PrimitiveAtom {
+        private final String holderClassName;
+        private final String accessorSuffix;
+
+        private PrimitiveAtom(String holderClassName, String accessorSuffix) {
+            this.holderClassName = ATOMS_PACKAGE + holderClassName;
+            this.accessorSuffix = accessorSuffix;
+        }
+
+        private ClassNode holderType() {
+            return ClassHelper.make(holderClassName);
+        }
+    }
 
     /**
      * Handles the bulk of the processing, mostly delegating to other methods.
@@ -56,26 +120,36 @@ public class SwingCommandObjectASTTransformation extends CommandObjectASTTransfo
     public void visit(ASTNode[] nodes, SourceUnit source) {
         checkNodesForAnnotationAndType(nodes[0], nodes[1]);
 
-        if (SUPPORTED_ATOM_TYPES.isEmpty()) {
-            for (Map.Entry<Class, Class> entry : ScaffoldingUtils.initializeAtomTypes().entrySet()) {
-                SUPPORTED_ATOM_TYPES.put(makeClassSafe(entry.getKey()), makeClassSafe(entry.getValue()));
-            }
-        }
-
         ClassNode classNode = (ClassNode) nodes[1];
 
-        List<PropertyNode> properties = new ArrayList<PropertyNode>(classNode.getProperties());
-        for (PropertyNode propertyNode : properties) {
+        // only the supported properties are collected, as they are removed from the class below
+        List<PropertyNode> properties = null;
+        for (PropertyNode propertyNode : classNode.getProperties()) {
             if (propertyNode.isStatic() || propertyNode.isSynthetic() || propertyNode.isDynamicTyped()
                 || !propertyNode.isPublic() || !isPropertyTypeSupported(propertyNode))
                 continue;
+            if (properties == null) properties = new ArrayList<PropertyNode>();
+            properties.add(propertyNode);
+        }
+        if (properties == null) properties = Collections.emptyList();
+
+        ListExpression schema = new ListExpression();
 
+        for (PropertyNode propertyNode : properties) {
             Expression initialValue = propertyNode.getField().getInitialValueExpression();
             String propertyName = propertyNode.getField().getName();
             ClassNode propertyNodeType = propertyNode.getType();
             classNode.removeField(propertyName);
             classNode.getProperties().remove(propertyNode);
-            ClassNode propertyType = propertyNodeType.isEnum() ? ENUM_ATOMIC_VALUE : SUPPORTED_ATOM_TYPES.get(propertyNodeType);
+            PrimitiveAtom primitiveAtom = PRIMITIVE_ATOM_TYPES.get(propertyNodeType.getName());
+            ClassNode propertyType;
+            if (primitiveAtom != null) {
+                propertyType = primitiveAtom.holderType();
+            } else if (propertyNodeType.isEnum()) {
+                propertyType = makeClassSafe(EnumValue.class);
+            } else {
+                propertyType = makeClassSafe(AtomTypes.SUPPORTED.get(propertyNodeType.getName()));
+            }
 
             FieldNode fieldNode = classNode.addField(
                 propertyName,
@@ -85,13 +159,15 @@ public class SwingCommandObjectASTTransformation extends CommandObjectASTTransfo
 
             String typeName = uncapitalize(propertyNodeType.getNameWithoutPackage());
             if (propertyNodeType.isEnum()) typeName = "enum";
+            String getter = primitiveAtom != null ? GET + primitiveAtom.accessorSuffix : typeName + VALUE;
+            String setter = primitiveAtom != null ? SET + primitiveAtom.accessorSuffix : SET_VALUE;
             injectMethod(classNode, new MethodNode(
                 getGetterName(propertyName),
                 ACC_PUBLIC,
                 makeClassSafe(propertyNodeType),
                 params(),
                 ClassNode.EMPTY_ARRAY,
-                returns(call(field(fieldNode), typeName + VALUE, NO_ARGS))
+                returns(call(field(fieldNode), getter, NO_ARGS))
             ));
 
             injectMethod(classNode, new MethodNode(
@@ -100,7 +176,7 @@ public class SwingCommandObjectASTTransformation extends CommandObjectASTTransfo
                 ClassHelper.VOID_TYPE,
                 params(param(makeClassSafe(propertyNodeType), VALUE_ARG)),
                 ClassNode.EMPTY_ARRAY,
-                stmnt(call(field(fieldNode), SET_VALUE, args(var(VALUE_ARG))))
+                stmnt(call(field(fieldNode), setter, args(var(VALUE_ARG))))
             ));
 
             injectMethod(classNode, new MethodNode(
@@ -112,7 +188,8 @@ public class SwingCommandObjectASTTransformation extends CommandObjectASTTransfo
                 returns(field(fieldNode))
             ));
 
-            if (ClassHelper.isPrimitiveType(propertyNodeType)) {
+            // primitive holders flag themselves as primitive
+            if (primitiveAtom == null && ClassHelper.isPrimitiveType(propertyNodeType)) {
                 classNode.addObjectInitializerStatements(
                     stmnt(call(field(classNode, propertyName), SET_PRIMITIVE, args(constx(true))))
                 );
@@ -122,18 +199,64 @@ public class SwingCommandObjectASTTransformation extends CommandObjectASTTransfo
                     stmnt(call(THIS, getSetterName(propertyName), args(initialValue)))
                 );
             }
+
+            MapExpression declaration = new MapExpression();
+            declaration.addMapEntryExpression(constx(NAME), constx(propertyName));
+            declaration.addMapEntryExpression(constx(TYPE), classx(makeClassSafe(propertyNodeType)));
+            declaration.addMapEntryExpression(constx(HOLDER), constx(uncapitalize(propertyName) + PROPERTY));
+            declaration.addMapEntryExpression(constx(HOLDER_TYPE), classx(makeClassSafe(propertyType)));
+            schema.addExpression(declaration);
+        }
+
+        injectFormSchema(classNode, schema);
+        injectBatchUpdateMethods(classNode);
+    }
+
+    private void injectFormSchema(ClassNode classNode, ListExpression schema) {
+        if (classNode.getDeclaredField(SCHEMA_FIELD) != null) return;
+        ClassNode formSchemaType = ClassHelper.make(FORM_SCHEMA_CLASS);
+        classNode.addField(
+            SCHEMA_FIELD,
+            ACC_PUBLIC | ACC_STATIC | ACC_FINAL,
+            formSchemaType,
+            new StaticMethodCallExpression(formSchemaType, DEFINE, args(classx(classNode), schema)));
+    }
+
+    private void injectBatchUpdateMethods(ClassNode classNode) {
+        Parameter[] runnableParams = params(param(ClassHelper.make(Runnable.class), UPDATES_ARG));
+        if (classNode.getDeclaredMethod(BATCH_UPDATE, runnableParams) == null) {
+            injectMethod(classNode, new MethodNode(
+                BATCH_UPDATE,
+                ACC_PUBLIC,
+                ClassHelper.VOID_TYPE,
+                runnableParams,
+                ClassNode.EMPTY_ARRAY,
+                stmnt(new StaticMethodCallExpression(ClassHelper.make(BATCH_UPDATE_CLASS), RUN, args(var(UPDATES_ARG))))
+            ));
+        }
+
+        Parameter[] mapParams = params(param(ClassHelper.make(Map.class), VALUES_ARG));
+        if (classNode.getDeclaredMethod(BATCH_UPDATE, mapParams) == null) {
+            injectMethod(classNode, new MethodNode(
+                BATCH_UPDATE,
+                ACC_PUBLIC,
+                ClassHelper.VOID_TYPE,
+                mapParams,
+                ClassNode.EMPTY_ARRAY,
+                stmnt(new StaticMethodCallExpression(ClassHelper.make(BATCH_UPDATE_CLASS), APPLY, args(THIS, var(VALUES_ARG))))
+            ));
         }
     }
 
     private ConstructorCallExpression instantiateAtomicValue(ClassNode propertyType, ClassNode propertyNodeType) {
         if (propertyNodeType.isEnum()) {
-            return ctor(makeClassSafe(ENUM_ATOMIC_VALUE), args(classx(makeClassSafe(propertyNodeType))));
+            return ctor(makeClassSafe(propertyType), args(classx(makeClassSafe(propertyNodeType))));
         }
         return ctor(makeClassSafe(propertyType), NO_ARGS);
     }
 
     private static boolean isPropertyTypeSupported(PropertyNode propertyNode) {
-        return SUPPORTED_ATOM_TYPES.keySet().contains(propertyNode.getType()) ||
-            propertyNode.getType().isEnum();
+        ClassNode type = propertyNode.getType();
+        return AtomTypes.SUPPORTED.containsKey(type.getName()) || type.isEnum();
     }
 }
@@ -42,6 +42,26 @@ slider {
     paintTrack = true
 }
 
+bindings {
+    text {
+        // immediate, debounce, commit
+        policy = 'immediate'
+        delay = 250
+    }
+    adjustable {
+        // immediate, release, throttle, debounce, commit
+        policy = 'immediate'
+        delay = 40
+    }
+}
+
+validation {
+    // validate a property (and its declared dependents) as soon as its value changes
+    incremental = false
+    // run the validation triggered by the ok action outside of the UI thread
+    async = false
+}
+
 textArea {
     columns = 20
     rows = 4
@@ -49,3 +69,47 @@ textArea {
     wrapStyleWord = true
     tabSize = 4
 }
+
+prewarm {
+    // load templates, decorators, stylesheet and layout classes in the background after startup
+    enabled = false
+    // MVC groups of scaffolded forms to build once, off-screen, during prewarm;
+    // a list of group types, or a map of group types to their build arguments
+    groups = []
+}
+
+metrics {
+    // collect binding, validation, painting, form build and css timings; exposed as a JMX MBean
+    enabled = false
+}
+
+watchdog {
+    // log event dispatch thread stalls with its stack and the scaffolding operation in progress
+    enabled = false
+    // milliseconds before a late heartbeat is reported
+    threshold = 500
+    // milliseconds between heartbeats
+    interval = 100
+}
+
+tracing {
+    // record binding, validation and repaint spans; exported as Chrome trace-event JSON through JMX
+    enabled = false
+    // most recent spans kept in memory
+    capacity = 100000
+    // file the trace is written to on shutdown, if any
+    output = ''
+}
+
+dialog {
+    // keep the built forms of destroyed groups and their dialogs (per command object type, up to poolSize) and show later groups of the same type in them
+    reuse = false
+    poolSize = 2
+}
+
+errors {
+    decorators {
+        // layer: one layer per widget; form: a single layer paints every field of the form
+        overlay = 'layer'
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.plugins.scaffolding.monitor.Monitor;
+import griffon.plugins.validation.DefaultErrors;
+import griffon.plugins.validation.Errors;
+import griffon.plugins.validation.Validateable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates a snapshot of a {@code Validateable} outside of the UI thread.
+ * Results are published back to the UI thread in a single batch, unless a
+ * newer validation has been requested or the current one was cancelled.<p>
+ * A copy of the command object holding a snapshot of its constrained
+ * properties validates itself through {@code Validateable.validate()}, so
+ * class level rules apply as they do synchronously and custom validators
+ * never race with edits made on the UI thread. Command objects that cannot
+ * be copied (no public no-arg constructor, or constrained properties
+ * without setters) are validated on the calling thread instead, with a
+ * warning logged once per type. A validator failing with an exception is
+ * reported as a global {@value #VALIDATION_FAILED} error.
+ *
+ * @author Andres Almiray
+ */
+public final class AsyncValidator {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncValidator.class);
+    private static final ConcurrentMap<Class<?>, Boolean> NOT_COPYABLE = new ConcurrentHashMap<Class<?>, Boolean>();
+    private static ExecutorService executorService;
+
+    public static final String VALIDATION_FAILED = "validation.failed";
+
+    private final Validateable validateable;
+    private final AtomicInteger generation = new AtomicInteger();
+    private Future<?> pending;
+
+    public interface Callback {
+        void validated(boolean valid);
+    }
+
+    public AsyncValidator(Validateable validateable) {
+        this.validateable = validateable;
+    }
+
+    public void validate(final Callback callback) {
+        cancel();
+        final int currentGeneration = generation.get();
+        final Validateable copy = copyOf(validateable);
+        // the command object validates itself, class level rules included
+        final Validateable target = copy != null ? copy : validateable;
+        Runnable task = new Runnable() {
+            public void run() {
+                Errors errors;
+                Monitor.Scope scope = Monitor.begin(Monitor.Operation.VALIDATION, validateable.getClass());
+                try {
+                    target.getErrors().clearAllErrors();
+                    target.validate();
+                    errors = target.getErrors();
+                } catch (RuntimeException e) {
+                    LOG.warn("Unexpected error while validating " + validateable.getClass().getName(), e);
+                    errors = new DefaultErrors(validateable.getClass());
+                    errors.reject(VALIDATION_FAILED, new Object[]{e.getMessage()}, "Validation failed: " + e.getMessage());
+                } finally {
+                    Monitor.end(scope);
+                }
+                if (Thread.currentThread().isInterrupted() || generation.get() != currentGeneration) return;
+                publish(errors, currentGeneration, callback);
+            }
+        };
+
+        if (copy != null) {
+            pending = executorService().submit(task);
+        } else {
+            task.run();
+        }
+    }
+
+    private void publish(final Errors errors, final int currentGeneration, final Callback callback) {
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                if (generation.get() != currentGeneration) return;
+                pending = null;
+                Errors target = validateable.getErrors();
+                if (errors != target) {
+                    target.clearAllErrors();
+                    target.addAllErrors(errors);
+                }
+                if (callback != null) callback.validated(!errors.hasErrors());
+            }
+        });
+    }
+
+    private static Validateable copyOf(Validateable validateable) {
+        Class<?> type = validateable.getClass();
+        try {
+            Validateable copy = (Validateable) type.newInstance();
+            for (String propertyName : validateable.constrainedProperties().keySet()) {
+                PropertyAccessor accessor = PropertyAccessor.of(type, propertyName);
+                if (!accessor.isWritable()) {
+                    warnNotCopyable(type, "property '" + propertyName + "' has no setter", null);
+                    return null;
+                }
+                accessor.set(copy, accessor.get(validateable));
+            }
+            return copy;
+        } catch (Exception e) {
+            warnNotCopyable(type, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static void warnNotCopyable(Class<?> type, String reason, Exception e) {
+        // once per type, as this happens on every validation of the type
+        if (NOT_COPYABLE.putIfAbsent(type, Boolean.TRUE) != null) return;
+        LOG.warn("Cannot copy " + type.getName() + " (" + reason + "); it is validated on the calling thread even though asynchronous validation is enabled", e);
+    }
+
+    public boolean isPending() {
+        return pending != null;
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Stops the threads shared by every validator. Called when the
+     * application shuts down; a later validation starts them again.
+     */
+    public static synchronized void shutdown() {
+        if (executorService == null) return;
+        executorService.shutdownNow();
+        executorService = null;
+    }
+
+    private static synchronized ExecutorService executorService() {
+        if (executorService == null) {
+            executorService = createExecutorService();
+        }
+        return executorService;
+    }
+
+    private static ExecutorService createExecutorService() {
+        try {
+            // virtual threads are only available on recent runtimes
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "scaffolding-validation-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.core.resources.editors.PropertyEditorResolver;
+
+import javax.swing.SwingUtilities;
+import java.beans.PropertyEditor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the changes made to command objects by the current thread.<p>
+ * While a batch is open, bindings and scaffolding contexts defer the UI work
+ * triggered by value changes, keeping a single pending action per key. When
+ * the outermost batch ends all pending actions run in one pass on the UI
+ * thread. Property change events are still fired for every change; a
+ * batch coalesces the UI work they trigger but fires no change set of its
+ * own. Command objects expose this through their generated
+ * {@code batchUpdate} methods.
+ *
+ * @author Andres Almiray
+ */
+public final class BatchUpdate {
+    private static final ThreadLocal<BatchUpdate> CURRENT = new ThreadLocal<BatchUpdate>();
+
+    private final Map<Object, Runnable> actions = new LinkedHashMap<Object, Runnable>();
+    private int depth;
+
+    private BatchUpdate() {
+    }
+
+    public static void run(Runnable updates) {
+        BatchUpdate batch = CURRENT.get();
+        if (batch == null) {
+            batch = new BatchUpdate();
+            CURRENT.set(batch);
+        }
+        batch.depth++;
+        try {
+            updates.run();
+        } finally {
+            if (--batch.depth == 0) {
+                CURRENT.remove();
+                batch.flush();
+            }
+        }
+    }
+
+    /**
+     * Sets the given properties of the target within a single batch. Values
+     * that are not instances of the property type are converted with the
+     * {@code PropertyEditor} of the type, as bindings do. Every value is
+     * converted before any is set, so a value that cannot be converted
+     * leaves the target untouched.
+     */
+    public static void apply(final Object target, final Map<?, ?> values) {
+        if (values == null || values.isEmpty()) return;
+        final Map<PropertyAccessor, Object> converted = new LinkedHashMap<PropertyAccessor, Object>();
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            PropertyAccessor accessor = PropertyAccessor.of(target.getClass(), String.valueOf(entry.getKey()));
+            converted.put(accessor, convert(accessor, entry.getValue()));
+        }
+        run(new Runnable() {
+            public void run() {
+                for (Map.Entry<PropertyAccessor, Object> entry : converted.entrySet()) {
+                    entry.getKey().set(target, entry.getValue());
+                }
+            }
+        });
+    }
+
+    private static Object convert(PropertyAccessor accessor, Object value) {
+        Class<?> type = accessor.getPropertyType();
+        if (value == null) {
+            if (type.isPrimitive()) {
+                throw new IllegalArgumentException("Cannot set property '" + accessor.getPropertyName() + "' of primitive type " + type.getName() + " to null");
+            }
+            return null;
+        }
+        if (wrapperOf(type).isInstance(value)) return value;
+
+        PropertyEditor editor = PropertyEditorResolver.findEditor(type);
+        if (editor == null) {
+            throw new IllegalArgumentException("Cannot convert " + value.getClass().getName() + " to " + type.getName() + " for property '" + accessor.getPropertyName() + "'");
+        }
+        try {
+            if (value instanceof CharSequence) {
+                editor.setAsText(value.toString());
+            } else {
+                editor.setValue(value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cannot convert '" + value + "' to " + type.getName() + " for property '" + accessor.getPropertyName() + "'", e);
+        }
+        Object result = editor.getValue();
+        if (result == null ? type.isPrimitive() : !wrapperOf(type).isInstance(result)) {
+            throw new IllegalArgumentException("Cannot convert '" + value + "' to " + type.getName() + " for property '" + accessor.getPropertyName() + "'");
+        }
+        return result;
+    }
+
+    private static Class<?> wrapperOf(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        if (type == Integer.TYPE) return Integer.class;
+        if (type == Long.TYPE) return Long.class;
+        if (type == Double.TYPE) return Double.class;
+        if (type == Boolean.TYPE) return Boolean.class;
+        if (type == Float.TYPE) return Float.class;
+        if (type == Short.TYPE) return Short.class;
+        if (type == Byte.TYPE) return Byte.class;
+        if (type == Character.TYPE) return Character.class;
+        return Void.class;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Defers the given action to the end of the current batch, replacing any
+     * action already deferred under the same key. Returns false, leaving the
+     * action to the caller, when no batch is open on this thread.
+     */
+    public static boolean defer(Object key, Runnable action) {
+        BatchUpdate batch = CURRENT.get();
+        if (batch == null) return false;
+        batch.actions.remove(key);
+        batch.actions.put(key, action);
+        return true;
+    }
+
+    private void flush() {
+        if (actions.isEmpty()) return;
+        final List<Runnable> pending = new ArrayList<Runnable>(actions.values());
+        actions.clear();
+        Runnable pass = new Runnable() {
+            public void run() {
+                for (Runnable action : pending) {
+                    action.run();
+                }
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            pass.run();
+        } else {
+            SwingUtilities.invokeLater(pass);
+        }
+    }
+}
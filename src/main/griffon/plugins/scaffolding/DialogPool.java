@@ -0,0 +1,252 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding;
+
+import org.jdesktop.jxlayer.JXLayer;
+
+import javax.swing.AbstractButton;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JScrollPane;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Point;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowFocusListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the built forms of command objects once their MVC group is done
+ * with them, along with the dialog that showed them, so that a later group
+ * scaffolding the same command object type shows its command object in an
+ * existing form instead of building, packing and decorating a new one.<p>
+ * Forms are pooled per command object type and only handed out to groups
+ * whose {@code FormPlan} is the one the form was built from; a form whose
+ * plan was recomputed is never reused and ages out of the pool. Pools must
+ * only be used from the UI thread.
+ *
+ * @author Andres Almiray
+ */
+public final class DialogPool {
+    private static final String FOCUS_RESET = DialogPool.class.getName() + ".focusReset";
+    private static final Map<Class<?>, DialogPool> POOLS = new HashMap<Class<?>, DialogPool>();
+
+    // idle forms, least recently released first
+    private final LinkedList<Form> forms = new LinkedList<Form>();
+
+    public static DialogPool of(Class<?> type) {
+        DialogPool pool = POOLS.get(type);
+        if (pool == null) {
+            pool = new DialogPool();
+            POOLS.put(type, pool);
+        }
+        return pool;
+    }
+
+    public static void clear() {
+        for (DialogPool pool : POOLS.values()) {
+            pool.disposeAll();
+        }
+        POOLS.clear();
+    }
+
+    private DialogPool() {
+
+    }
+
+    /**
+     * Takes the most recently released idle form built from the given plan
+     * out of the pool, or returns {@code null} if there is none.
+     */
+    public Form acquire(FormPlan plan) {
+        for (Iterator<Form> it = forms.descendingIterator(); it.hasNext(); ) {
+            Form form = it.next();
+            if (form.plan == plan) {
+                it.remove();
+                return form;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a form to the pool, disposing the least recently released ones
+     * beyond the given size. Its dialog, if any, must already be hidden.
+     */
+    public void release(Form form, int poolSize) {
+        if (form.dialog != null) removeFocusReset(form.dialog);
+        forms.remove(form);
+        forms.addLast(form);
+        while (forms.size() > Math.max(poolSize, 0)) {
+            forms.removeFirst().dispose();
+        }
+    }
+
+    public int size() {
+        return forms.size();
+    }
+
+    private void disposeAll() {
+        for (Form form : forms) {
+            form.dispose();
+        }
+        forms.clear();
+    }
+
+    /**
+     * Prepares a dialog for being shown again: scrolled views go back to
+     * their origin and the first focusable component gets the focus when
+     * the dialog is focused, rather than the one that had it last time.
+     */
+    public static void reset(final JDialog dialog) {
+        resetScrollPositions(dialog.getContentPane());
+        removeFocusReset(dialog);
+        WindowFocusListener focusReset = new WindowAdapter() {
+            @Override
+            public void windowGainedFocus(WindowEvent event) {
+                removeFocusReset(dialog);
+                Component first = dialog.getFocusTraversalPolicy().getFirstComponent(dialog);
+                if (first != null) first.requestFocusInWindow();
+            }
+        };
+        dialog.getRootPane().putClientProperty(FOCUS_RESET, focusReset);
+        dialog.addWindowFocusListener(focusReset);
+    }
+
+    private static void removeFocusReset(JDialog dialog) {
+        Object focusReset = dialog.getRootPane().getClientProperty(FOCUS_RESET);
+        if (focusReset instanceof WindowFocusListener) {
+            dialog.removeWindowFocusListener((WindowFocusListener) focusReset);
+            dialog.getRootPane().putClientProperty(FOCUS_RESET, null);
+        }
+    }
+
+    private static void resetScrollPositions(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JScrollPane) {
+                ((JScrollPane) component).getViewport().setViewPosition(new Point(0, 0));
+            }
+            if (component instanceof Container) resetScrollPositions((Container) component);
+        }
+    }
+
+    /**
+     * A built form: the content panel holding the fields, the component
+     * placed in the dialog (the content, or the layer wrapping it), the
+     * buttons whose actions belong to the group showing the form, and the
+     * dialog it was last shown in.
+     */
+    public static final class Form {
+        private final FormPlan plan;
+        private final JComponent content;
+        private final JComponent component;
+        private final AbstractButton okButton;
+        private final AbstractButton cancelButton;
+        private final List<PropertyBinding> bindings = new ArrayList<PropertyBinding>();
+        private final List<FormIndex.Entry> entries = new ArrayList<FormIndex.Entry>();
+        private JDialog dialog;
+
+        public Form(FormPlan plan, JComponent content, JComponent component, AbstractButton okButton, AbstractButton cancelButton) {
+            this.plan = plan;
+            this.content = content;
+            this.component = component;
+            this.okButton = okButton;
+            this.cancelButton = cancelButton;
+        }
+
+        public FormPlan getPlan() {
+            return plan;
+        }
+
+        public JComponent getContent() {
+            return content;
+        }
+
+        public JComponent getComponent() {
+            return component;
+        }
+
+        public AbstractButton getOkButton() {
+            return okButton;
+        }
+
+        public AbstractButton getCancelButton() {
+            return cancelButton;
+        }
+
+        public JDialog getDialog() {
+            return dialog;
+        }
+
+        public void setDialog(JDialog dialog) {
+            this.dialog = dialog;
+        }
+
+        /**
+         * Takes the bindings and indexed components of this form away from
+         * the context it was built with, before that context is disposed.
+         */
+        public void detach(SwingScaffoldingContext scaffoldingContext) {
+            bindings.addAll(scaffoldingContext.detachBindings());
+            entries.clear();
+            entries.addAll(scaffoldingContext.getFormIndex().getEntries());
+        }
+
+        /**
+         * Hands this form over to the given context; every widget then shows
+         * the values of its command object.
+         */
+        public void attach(SwingScaffoldingContext scaffoldingContext) {
+            for (FormIndex.Entry entry : entries) {
+                scaffoldingContext.getFormIndex().register(entry.getPropertyName(), entry.getLabeler(), entry.getEditor(), entry.getDecorationHost());
+            }
+            setScaffoldingContext(component, scaffoldingContext);
+            for (PropertyBinding binding : bindings) {
+                scaffoldingContext.attachBinding(binding);
+            }
+            bindings.clear();
+            entries.clear();
+        }
+
+        private static void setScaffoldingContext(Component component, ScaffoldingContext scaffoldingContext) {
+            if (component instanceof JXLayer && ((JXLayer) component).getUI() instanceof ScaffoldingContextAware) {
+                ((ScaffoldingContextAware) ((JXLayer) component).getUI()).setScaffoldingContext(scaffoldingContext);
+            }
+            if (component instanceof Container) {
+                for (Component child : ((Container) component).getComponents()) {
+                    setScaffoldingContext(child, scaffoldingContext);
+                }
+            }
+        }
+
+        private void dispose() {
+            for (PropertyBinding binding : bindings) {
+                binding.dispose();
+            }
+            bindings.clear();
+            entries.clear();
+            if (dialog != null) dialog.dispose();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.plugins.validation.FieldObjectError;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the validation state of a single property.
+ *
+ * @author Andres Almiray
+ */
+public final class FieldState {
+    private static final String[] EMPTY = new String[0];
+
+    private final String propertyName;
+    private final String[] messages;
+    private final String[] codes;
+    private final boolean valueEmpty;
+
+    public static FieldState valid(String propertyName) {
+        return new FieldState(propertyName, EMPTY, EMPTY, false);
+    }
+
+    /**
+     * Returns the current state of the given property. States are cached by
+     * a {@code SwingScaffoldingContext}; other contexts are queried directly.
+     */
+    public static FieldState of(ScaffoldingContext scaffoldingContext, String propertyName) {
+        if (scaffoldingContext instanceof SwingScaffoldingContext) {
+            return ((SwingScaffoldingContext) scaffoldingContext).getFieldState(propertyName);
+        }
+        List<FieldObjectError> fieldErrors = scaffoldingContext.getValidateable().getErrors().getFieldErrors(propertyName);
+        if (fieldErrors == null || fieldErrors.isEmpty()) return valid(propertyName);
+        return new FieldState(propertyName, scaffoldingContext.resolveFieldErrorMessages(fieldErrors), null);
+    }
+
+    public FieldState(String propertyName, String[] messages, String[] codes) {
+        this(propertyName, messages, codes, false);
+    }
+
+    public FieldState(String propertyName, String[] messages, String[] codes, boolean valueEmpty) {
+        this.propertyName = propertyName;
+        this.messages = messages != null ? messages.clone() : EMPTY;
+        this.codes = codes != null ? codes.clone() : EMPTY;
+        this.valueEmpty = valueEmpty;
+    }
+
+    public FieldState withValueEmpty(boolean valueEmpty) {
+        if (this.valueEmpty == valueEmpty) return this;
+        return new FieldState(propertyName, messages, codes, valueEmpty);
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public boolean hasErrors() {
+        return getErrorCount() != 0;
+    }
+
+    public int getErrorCount() {
+        return Math.max(messages.length, codes.length);
+    }
+
+    public boolean isValueEmpty() {
+        return valueEmpty;
+    }
+
+    public String[] getMessages() {
+        return messages.clone();
+    }
+
+    public String[] getCodes() {
+        return codes.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FieldState that = (FieldState) o;
+        return valueEmpty == that.valueEmpty &&
+            propertyName.equals(that.propertyName) &&
+            Arrays.equals(messages, that.messages) &&
+            Arrays.equals(codes, that.codes);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = propertyName.hashCode();
+        result = 31 * result + Arrays.hashCode(messages);
+        result = 31 * result + Arrays.hashCode(codes);
+        result = 31 * result + (valueEmpty ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldState{" + propertyName + ", errors=" + Arrays.toString(codes) + ", empty=" + valueEmpty + "}";
+    }
+}
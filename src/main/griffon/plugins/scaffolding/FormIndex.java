@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import javax.swing.JComponent;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Components of a built form, indexed by property name.<p>
+ * Entries are registered by the {@code errorDecorator} node while the form
+ * is built and give constant time access to the labeler, the editor and the
+ * component that hosts its decorations.
+ *
+ * @author Andres Almiray
+ */
+public final class FormIndex {
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    public void register(String propertyName, JComponent labeler, JComponent editor, JComponent decorationHost) {
+        entries.put(propertyName, new Entry(propertyName, labeler, editor, decorationHost));
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    public Entry get(String propertyName) {
+        return entries.get(propertyName);
+    }
+
+    public JComponent getLabeler(String propertyName) {
+        Entry entry = entries.get(propertyName);
+        return entry != null ? entry.labeler : null;
+    }
+
+    public JComponent getEditor(String propertyName) {
+        Entry entry = entries.get(propertyName);
+        return entry != null ? entry.editor : null;
+    }
+
+    public JComponent getDecorationHost(String propertyName) {
+        Entry entry = entries.get(propertyName);
+        return entry != null ? entry.decorationHost : null;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public static final class Entry {
+        private final String propertyName;
+        private final JComponent labeler;
+        private final JComponent editor;
+        private final JComponent decorationHost;
+
+        private Entry(String propertyName, JComponent labeler, JComponent editor, JComponent decorationHost) {
+            this.propertyName = propertyName;
+            this.labeler = labeler;
+            this.editor = editor;
+            this.decorationHost = decorationHost;
+        }
+
+        public String getPropertyName() {
+            return propertyName;
+        }
+
+        public JComponent getLabeler() {
+            return labeler;
+        }
+
+        public JComponent getEditor() {
+            return editor;
+        }
+
+        /**
+         * The per widget layer in layer mode, the form layer in form mode.
+         */
+        public JComponent getDecorationHost() {
+            return decorationHost;
+        }
+    }
+}
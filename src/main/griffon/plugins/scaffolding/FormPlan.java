@@ -0,0 +1,273 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.exceptions.GriffonException;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Everything needed to build the form of a command object class that does
+ * not depend on a particular instance: the displayed properties in order,
+ * their resolved labeler and widget templates, the widget attributes taken
+ * from UiDefaults and constraints, and any model parameter a template
+ * derives from the constraints.<p>
+ * Templates are resolved from the controller and action scaffolding the
+ * command object as well as its class, so plans are computed once per
+ * (class, controller class, action) and reused by every later build.
+ *
+ * @author Andres Almiray
+ */
+public final class FormPlan {
+    // held weakly by class, so that classes of discarded class loaders can be collected
+    private static final Map<Class<?>, SoftReference<ConcurrentMap<Key, FormPlan>>> PLANS = new WeakHashMap<Class<?>, SoftReference<ConcurrentMap<Key, FormPlan>>>();
+
+    private final Class<?> type;
+    private final List<Entry> entries;
+    private final Map<String, Entry> entriesByName;
+
+    public static FormPlan of(ScaffoldingContext scaffoldingContext) {
+        Class<?> type = scaffoldingContext.getValidateable().getClass();
+        ConcurrentMap<Key, FormPlan> plans = plansOf(type);
+        Key key = new Key(scaffoldingContext);
+        FormPlan plan = plans.get(key);
+        if (plan == null) {
+            plan = new FormPlan(type, scaffoldingContext);
+            FormPlan existing = plans.putIfAbsent(key, plan);
+            if (existing != null) plan = existing;
+        }
+        return plan;
+    }
+
+    private static ConcurrentMap<Key, FormPlan> plansOf(Class<?> type) {
+        synchronized (PLANS) {
+            SoftReference<ConcurrentMap<Key, FormPlan>> reference = PLANS.get(type);
+            ConcurrentMap<Key, FormPlan> plans = reference != null ? reference.get() : null;
+            if (plans == null) {
+                plans = new ConcurrentHashMap<Key, FormPlan>();
+                PLANS.put(type, new SoftReference<ConcurrentMap<Key, FormPlan>>(plans));
+            }
+            return plans;
+        }
+    }
+
+    public static Entry entryOf(ScaffoldingContext scaffoldingContext, String propertyName) {
+        Entry entry = of(scaffoldingContext).getEntry(propertyName);
+        if (entry == null) {
+            // not a displayed property; templates may still be built for it explicitly
+            ConstrainedProperty constrainedProperty = scaffoldingContext.getValidateable().constrainedProperties().get(propertyName);
+            FormSchema schema = FormSchema.of(scaffoldingContext.getValidateable().getClass());
+            entry = new Entry(propertyName, constrainedProperty, schema.getProperty(propertyName), null, null);
+        }
+        return entry;
+    }
+
+    public static void clear() {
+        synchronized (PLANS) {
+            PLANS.clear();
+        }
+    }
+
+    public static void clear(Class<?> type) {
+        synchronized (PLANS) {
+            PLANS.remove(type);
+        }
+    }
+
+    private FormPlan(Class<?> type, ScaffoldingContext scaffoldingContext) {
+        this.type = type;
+        FormSchema schema = FormSchema.of(type);
+        List<Entry> list = new ArrayList<Entry>();
+        Map<String, Entry> map = new LinkedHashMap<String, Entry>();
+        for (Map.Entry<String, ConstrainedProperty> e : scaffoldingContext.getValidateable().constrainedProperties().entrySet()) {
+            String propertyName = e.getKey();
+            ConstrainedProperty constrainedProperty = e.getValue();
+            if (!constrainedProperty.isDisplay()) continue;
+            Entry entry = new Entry(propertyName, constrainedProperty, schema.getProperty(propertyName),
+                scaffoldingContext.resolveLabeler(propertyName),
+                scaffoldingContext.resolveWidget(propertyName));
+            list.add(entry);
+            map.put(propertyName, entry);
+        }
+        this.entries = Collections.unmodifiableList(list);
+        this.entriesByName = Collections.unmodifiableMap(map);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Entry getEntry(String propertyName) {
+        return entriesByName.get(propertyName);
+    }
+
+    public static final class Entry {
+        private final String propertyName;
+        private final ConstrainedProperty constrainedProperty;
+        private final FormSchema.Property property;
+        private final Class labelerTemplate;
+        private final Class widgetTemplate;
+        private final ConcurrentMap<String, Map<String, Object>> widgetAttributes = new ConcurrentHashMap<String, Map<String, Object>>();
+        private final ConcurrentMap<String, Object> parameters = new ConcurrentHashMap<String, Object>();
+
+        private Entry(String propertyName, ConstrainedProperty constrainedProperty, FormSchema.Property property, Class labelerTemplate, Class widgetTemplate) {
+            this.propertyName = propertyName;
+            this.constrainedProperty = constrainedProperty;
+            this.property = property;
+            this.labelerTemplate = labelerTemplate;
+            this.widgetTemplate = widgetTemplate;
+        }
+
+        public String getPropertyName() {
+            return propertyName;
+        }
+
+        public ConstrainedProperty getConstrainedProperty() {
+            return constrainedProperty;
+        }
+
+        /**
+         * Returns the schema of this property, or {@code null} if it has no value holder.
+         */
+        public FormSchema.Property getProperty() {
+            return property;
+        }
+
+        public boolean isEditable() {
+            return constrainedProperty == null || constrainedProperty.isEditable();
+        }
+
+        public boolean isPassword() {
+            return constrainedProperty != null && constrainedProperty.isPassword();
+        }
+
+        /**
+         * Returns the lower bound declared by a {@code min} or {@code range}
+         * constraint, or {@code null}.
+         */
+        public Object getMinimum() {
+            if (constrainedProperty == null) return null;
+            if (constrainedProperty.getMin() != null) return constrainedProperty.getMin();
+            return constrainedProperty.getRange() != null ? constrainedProperty.getRange().getFrom() : null;
+        }
+
+        /**
+         * Returns the upper bound declared by a {@code max} or {@code range}
+         * constraint, or {@code null}.
+         */
+        public Object getMaximum() {
+            if (constrainedProperty == null) return null;
+            if (constrainedProperty.getMax() != null) return constrainedProperty.getMax();
+            return constrainedProperty.getRange() != null ? constrainedProperty.getRange().getTo() : null;
+        }
+
+        public Class getLabelerTemplate() {
+            return labelerTemplate;
+        }
+
+        public Class getWidgetTemplate() {
+            return widgetTemplate;
+        }
+
+        /**
+         * Returns a fresh, mutable copy of the attributes of the given widget,
+         * nested maps included.
+         */
+        public Map<String, Object> widgetAttributes(ScaffoldingContext scaffoldingContext, String widget) {
+            Map<String, Object> attributes = widgetAttributes.get(widget);
+            if (attributes == null) {
+                attributes = copyOf(scaffoldingContext.widgetAttributes(widget, constrainedProperty));
+                Map<String, Object> existing = widgetAttributes.putIfAbsent(widget, attributes);
+                if (existing != null) attributes = existing;
+            }
+            return copyOf(attributes);
+        }
+
+        private static Map<String, Object> copyOf(Map<?, ?> attributes) {
+            Map<String, Object> copy = new LinkedHashMap<String, Object>();
+            for (Map.Entry<?, ?> entry : attributes.entrySet()) {
+                Object value = entry.getValue();
+                copy.put(String.valueOf(entry.getKey()), value instanceof Map ? copyOf((Map<?, ?>) value) : value);
+            }
+            return copy;
+        }
+
+        /**
+         * Returns the parameter stored under the given key, computing it the
+         * first time it is requested. Parameters are shared by every form
+         * built from the same plan and must not be modified.
+         */
+        public Object parameter(String key, Callable<?> producer) {
+            Object value = parameters.get(key);
+            if (value == null) {
+                try {
+                    value = producer.call();
+                } catch (Exception e) {
+                    throw new GriffonException(e);
+                }
+                if (value == null) value = NullValue.INSTANCE;
+                Object existing = parameters.putIfAbsent(key, value);
+                if (existing != null) value = existing;
+            }
+            return value == NullValue.INSTANCE ? null : value;
+        }
+    }
+
+    private enum NullValue {
+        INSTANCE
+    }
+
+    private static final class Key {
+        private final Class<?> controllerType;
+        private final String actionName;
+
+        private Key(ScaffoldingContext scaffoldingContext) {
+            this.controllerType = scaffoldingContext.getController() != null ? scaffoldingContext.getController().getClass() : null;
+            this.actionName = scaffoldingContext.getActionName();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return controllerType == that.controllerType &&
+                (actionName == null ? that.actionName == null : actionName.equals(that.actionName));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = controllerType != null ? controllerType.hashCode() : 0;
+            result = 31 * result + (actionName != null ? actionName.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding;
+
+import griffon.exceptions.GriffonException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable description of the scaffolded properties of a command object.<p>
+ * The {@code @CommandObject} transformation emits a schema for every class
+ * it handles in a static field named {@link #SCHEMA_FIELD}, recording the
+ * type and value holder of each property. Constraints are not part of the
+ * schema; they are read from the {@code ConstrainedProperty}, which also
+ * reflects inherited and runtime constraints.<p>
+ * The schema of a class includes the properties of its superclasses, the
+ * class's own declarations taking precedence. Classes without a generated
+ * schema get one built by introspection.
+ *
+ * @author Andres Almiray
+ */
+public final class FormSchema {
+    public static final String SCHEMA_FIELD = "$formSchema";
+
+    public static final String NAME = "name";
+    public static final String TYPE = "type";
+    public static final String HOLDER = "holder";
+    public static final String HOLDER_TYPE = "holderType";
+
+    private static final String PROPERTY_SUFFIX = "Property";
+    private static final ConcurrentMap<Class<?>, FormSchema> SCHEMAS = new ConcurrentHashMap<Class<?>, FormSchema>();
+
+    private final Class<?> type;
+    private final boolean generated;
+    private final Map<String, Property> properties;
+
+    /**
+     * Called from the code generated by the {@code @CommandObject} transformation.
+     */
+    public static FormSchema define(Class<?> type, List<Map<String, Object>> declarations) {
+        Map<String, Property> properties = new LinkedHashMap<String, Property>();
+        // superclasses are initialized first, so their schemas are already defined
+        Class<?> superclass = type.getSuperclass();
+        if (superclass != null && superclass != Object.class) {
+            for (Property property : of(superclass).getProperties()) {
+                properties.put(property.getName(), property);
+            }
+        }
+        for (Map<String, Object> declaration : declarations) {
+            Property property = new Property(type, declaration);
+            properties.put(property.getName(), property);
+        }
+        return new FormSchema(type, true, properties);
+    }
+
+    public static FormSchema of(Class<?> type) {
+        FormSchema schema = SCHEMAS.get(type);
+        if (schema == null) {
+            schema = resolve(type);
+            FormSchema existing = SCHEMAS.putIfAbsent(type, schema);
+            if (existing != null) schema = existing;
+        }
+        return schema;
+    }
+
+    public static void clear() {
+        SCHEMAS.clear();
+    }
+
+    public static void clear(Class<?> type) {
+        SCHEMAS.remove(type);
+    }
+
+    private static FormSchema resolve(Class<?> type) {
+        try {
+            Field field = type.getDeclaredField(SCHEMA_FIELD);
+            if (Modifier.isStatic(field.getModifiers()) && FormSchema.class.isAssignableFrom(field.getType())) {
+                FormSchema schema = (FormSchema) field.get(null);
+                if (schema != null) return schema;
+            }
+        } catch (NoSuchFieldException e) {
+            // not transformed; fall back to introspection
+        } catch (IllegalAccessException e) {
+            throw new GriffonException(e);
+        }
+        return introspect(type);
+    }
+
+    private static FormSchema introspect(Class<?> type) {
+        Map<String, Property> properties = new LinkedHashMap<String, Property>();
+        for (Method method : type.getMethods()) {
+            String methodName = method.getName();
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterTypes().length != 0 ||
+                !methodName.endsWith(PROPERTY_SUFFIX) || methodName.length() == PROPERTY_SUFFIX.length() ||
+                !AtomicValue.class.isAssignableFrom(method.getReturnType())) continue;
+            String propertyName = methodName.substring(0, methodName.length() - PROPERTY_SUFFIX.length());
+            Map<String, Object> declaration = new LinkedHashMap<String, Object>();
+            declaration.put(NAME, propertyName);
+            declaration.put(TYPE, PropertyAccessor.of(type, propertyName).getPropertyType());
+            declaration.put(HOLDER, methodName);
+            declaration.put(HOLDER_TYPE, method.getReturnType());
+            properties.put(propertyName, new Property(type, declaration));
+        }
+        return new FormSchema(type, false, properties);
+    }
+
+    private FormSchema(Class<?> type, boolean generated, Map<String, Property> properties) {
+        this.type = type;
+        this.generated = generated;
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Whether this schema was emitted at compile time.
+     */
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    public Collection<Property> getProperties() {
+        return properties.values();
+    }
+
+    public Property getProperty(String propertyName) {
+        return properties.get(propertyName);
+    }
+
+    public AtomicValue valueHolder(Object target, String propertyName) {
+        Property property = properties.get(propertyName);
+        if (property == null) {
+            throw new GriffonException(new NoSuchMethodException("No value holder for property '" + propertyName + "' in " + type.getName()));
+        }
+        return property.valueHolder(target);
+    }
+
+    public static final class Property {
+        private final Class<?> ownerType;
+        private final String name;
+        private final Class<?> type;
+        private final String holder;
+        private final Class<?> holderType;
+        private volatile Method holderMethod;
+
+        private Property(Class<?> ownerType, Map<String, Object> declaration) {
+            this.ownerType = ownerType;
+            this.name = (String) declaration.get(NAME);
+            this.type = (Class<?>) declaration.get(TYPE);
+            this.holder = (String) declaration.get(HOLDER);
+            this.holderType = (Class<?>) declaration.get(HOLDER_TYPE);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public String getHolder() {
+            return holder;
+        }
+
+        public Class<?> getHolderType() {
+            return holderType;
+        }
+
+        public AtomicValue valueHolder(Object target) {
+            try {
+                return (AtomicValue) holderMethod().invoke(target);
+            } catch (IllegalAccessException e) {
+                throw new GriffonException(e);
+            } catch (InvocationTargetException e) {
+                throw new GriffonException(e);
+            }
+        }
+
+        private Method holderMethod() {
+            Method method = holderMethod;
+            if (method == null) {
+                try {
+                    method = ownerType.getMethod(holder);
+                } catch (NoSuchMethodException e) {
+                    throw new GriffonException(e);
+                }
+                holderMethod = method;
+            }
+            return method;
+        }
+    }
+}
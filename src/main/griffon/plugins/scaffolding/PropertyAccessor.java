@@ -0,0 +1,171 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.exceptions.GriffonException;
+
+import javax.swing.JComboBox;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read/write access to a single bean property, resolved once per
+ * (class, property name) pair and cached.<p>
+ * Classes are weakly referenced and the accessors of a class are softly
+ * referenced, as they hold on to its methods; the cache never keeps a
+ * discarded class loader alive.
+ *
+ * @author Andres Almiray
+ */
+public final class PropertyAccessor {
+    private static final Map<Class<?>, SoftReference<ConcurrentMap<String, PropertyAccessor>>> ACCESSORS = new WeakHashMap<Class<?>, SoftReference<ConcurrentMap<String, PropertyAccessor>>>();
+
+    private final Class<?> ownerType;
+    private final String propertyName;
+    private final Class<?> propertyType;
+    private final Method readMethod;
+    private final Method writeMethod;
+
+    /**
+     * Returns the accessor of the given property, failing with a
+     * {@code GriffonException} if the class does not define it.
+     */
+    public static PropertyAccessor of(Class<?> ownerType, String propertyName) {
+        ConcurrentMap<String, PropertyAccessor> accessors = accessorsOf(ownerType);
+        PropertyAccessor accessor = accessors.get(propertyName);
+        if (accessor == null) {
+            accessor = resolve(ownerType, propertyName);
+            PropertyAccessor existing = accessors.putIfAbsent(propertyName, accessor);
+            if (existing != null) accessor = existing;
+        }
+        return accessor;
+    }
+
+    private static ConcurrentMap<String, PropertyAccessor> accessorsOf(Class<?> ownerType) {
+        synchronized (ACCESSORS) {
+            SoftReference<ConcurrentMap<String, PropertyAccessor>> reference = ACCESSORS.get(ownerType);
+            ConcurrentMap<String, PropertyAccessor> accessors = reference != null ? reference.get() : null;
+            if (accessors == null) {
+                accessors = new ConcurrentHashMap<String, PropertyAccessor>();
+                ACCESSORS.put(ownerType, new SoftReference<ConcurrentMap<String, PropertyAccessor>>(accessors));
+            }
+            return accessors;
+        }
+    }
+
+    private static PropertyAccessor resolve(Class<?> ownerType, String propertyName) {
+        String actualPropertyName = propertyName;
+        if (JComboBox.class.isAssignableFrom(ownerType) && "selectedElement".equals(propertyName)) {
+            actualPropertyName = "selectedItem";
+        }
+
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(ownerType).getPropertyDescriptors()) {
+                if (actualPropertyName.equals(descriptor.getName())) {
+                    return new PropertyAccessor(ownerType, actualPropertyName,
+                        descriptor.getPropertyType(),
+                        accessible(descriptor.getReadMethod()),
+                        accessible(descriptor.getWriteMethod()));
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new GriffonException(e);
+        }
+        throw new GriffonException(new NoSuchFieldException("No such property '" + actualPropertyName + "' in " + ownerType.getName()));
+    }
+
+    private static Method accessible(Method method) {
+        if (method != null && !method.isAccessible()) {
+            try {
+                method.setAccessible(true);
+            } catch (SecurityException e) {
+                // ignore
+            }
+        }
+        return method;
+    }
+
+    private PropertyAccessor(Class<?> ownerType, String propertyName, Class<?> propertyType, Method readMethod, Method writeMethod) {
+        this.ownerType = ownerType;
+        this.propertyName = propertyName;
+        this.propertyType = propertyType;
+        this.readMethod = readMethod;
+        this.writeMethod = writeMethod;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public Class<?> getPropertyType() {
+        return propertyType;
+    }
+
+    public boolean isReadable() {
+        return readMethod != null;
+    }
+
+    public boolean isWritable() {
+        return writeMethod != null;
+    }
+
+    public Object get(Object bean) {
+        if (readMethod == null) {
+            throw new GriffonException(new NoSuchMethodException("No readable property '" + propertyName + "' in " + ownerType.getName()));
+        }
+        try {
+            return readMethod.invoke(bean);
+        } catch (IllegalAccessException e) {
+            throw new GriffonException(e);
+        } catch (InvocationTargetException e) {
+            throw new GriffonException(e);
+        }
+    }
+
+    public void set(Object bean, Object value) {
+        if (writeMethod == null) {
+            throw new GriffonException(new NoSuchMethodException("No writable property '" + propertyName + "' in " + ownerType.getName()));
+        }
+        try {
+            writeMethod.invoke(bean, value);
+        } catch (IllegalAccessException e) {
+            throw new GriffonException(e);
+        } catch (InvocationTargetException e) {
+            throw new GriffonException(e);
+        }
+    }
+
+    public static void clear() {
+        synchronized (ACCESSORS) {
+            ACCESSORS.clear();
+        }
+    }
+
+    public static void clear(Class<?> ownerType) {
+        synchronized (ACCESSORS) {
+            ACCESSORS.remove(ownerType);
+        }
+    }
+}
@@ -17,7 +17,7 @@
 package griffon.plugins.scaffolding;
 
 import griffon.core.resources.editors.PropertyEditorResolver;
-import griffon.exceptions.GriffonException;
+import griffon.plugins.scaffolding.monitor.Monitor;
 import griffon.plugins.validation.constraints.ConstrainedProperty;
 
 import javax.swing.*;
@@ -26,16 +26,10 @@ import javax.swing.table.TableModel;
 import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
 import java.awt.Component;
-import java.awt.event.ItemEvent;
-import java.awt.event.ItemListener;
+import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyDescriptor;
 import java.beans.PropertyEditor;
-import java.lang.reflect.InvocationTargetException;
-
-import static griffon.util.GriffonClassUtils.getProperty;
-import static griffon.util.GriffonClassUtils.setProperty;
 
 /**
  * @author Andres Almiray
@@ -45,7 +39,10 @@ public class PropertyBinding extends AbstractPropertyBinding {
     private Component source;
     private String sourcePropertyName;
     private AtomicValue property;
-    private PropertyDescriptor sourcePropertyDescriptor;
+    private PropertyAccessor sourceAccessor;
+    private final UpdatePolicy updatePolicy;
+    private Timer updateTimer;
+    private boolean updatePending;
 
     private final PropertyChangeListener sourceChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent propertyChangeEvent) {
@@ -53,31 +50,181 @@ public class PropertyBinding extends AbstractPropertyBinding {
         }
     };
 
+    private final Runnable updateSourceAction = new Runnable() {
+        public void run() {
+            // the binding may have been disposed before a batch completed
+            if (source != null) updateSource();
+        }
+    };
+
     private final PropertyChangeListener targetChangeListener = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent propertyChangeEvent) {
-            updateSource();
+            if (!BatchUpdate.defer(this, updateSourceAction)) updateSource();
         }
     };
 
     public static PropertyBinding create(final Component source, final String sourcePropertyName, final AtomicValue property, ConstrainedProperty constrainedProperty) {
-        return new PropertyBinding(source, sourcePropertyName, property, constrainedProperty);
+        return new PropertyBinding(source, sourcePropertyName, property, constrainedProperty, UpdatePolicy.IMMEDIATE, 0);
     }
 
-    private PropertyBinding(final Component source, final String sourcePropertyName, AtomicValue property, ConstrainedProperty constrainedProperty) {
+    public static PropertyBinding create(final Component source, final String sourcePropertyName, final AtomicValue property, ConstrainedProperty constrainedProperty, UpdatePolicy updatePolicy, int updateDelay) {
+        return new PropertyBinding(source, sourcePropertyName, property, constrainedProperty, updatePolicy, updateDelay);
+    }
+
+    private PropertyBinding(final Component source, final String sourcePropertyName, AtomicValue property, ConstrainedProperty constrainedProperty, UpdatePolicy updatePolicy, int updateDelay) {
         super(constrainedProperty);
         this.source = source;
         this.sourcePropertyName = sourcePropertyName;
         this.property = property;
-        this.sourcePropertyDescriptor = resolvePropertyDescriptor(source, sourcePropertyName);
+        this.sourceAccessor = PropertyAccessor.of(source.getClass(), sourcePropertyName);
+        this.updatePolicy = updatePolicy != null ? updatePolicy : UpdatePolicy.IMMEDIATE;
+        if (this.updatePolicy == UpdatePolicy.DEBOUNCE ||
+            this.updatePolicy == UpdatePolicy.THROTTLE ||
+            this.updatePolicy == UpdatePolicy.RELEASE) {
+            updateTimer = new Timer(Math.max(updateDelay, 0), new ActionListener() {
+                public void actionPerformed(ActionEvent event) {
+                    commit();
+                }
+            });
+            updateTimer.setRepeats(false);
+        }
 
         bind();
+        Monitor.event(Monitor.Event.BINDING_CREATED, source);
+    }
+
+    public UpdatePolicy getUpdatePolicy() {
+        return updatePolicy;
+    }
+
+    public void commit() {
+        if (updateTimer != null) updateTimer.stop();
+        if (updatePending) {
+            updatePending = false;
+            updateTarget();
+        }
+    }
+
+    protected void sourceChanged() {
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.SOURCE_CHANGE, getConstrainedProperty());
+        try {
+            applySourceChange();
+        } finally {
+            Monitor.end(scope);
+        }
+    }
+
+    protected void sourceChanged(boolean adjusting) {
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.SOURCE_CHANGE, getConstrainedProperty());
+        try {
+            applySourceChange(adjusting);
+        } finally {
+            Monitor.end(scope);
+        }
+    }
+
+    private void applySourceChange() {
+        switch (updatePolicy) {
+            case DEBOUNCE:
+            case RELEASE:
+                // sources without an adjusting flag settle after a quiet period
+                updatePending = true;
+                updateTimer.restart();
+                break;
+            case THROTTLE:
+                updatePending = true;
+                if (!updateTimer.isRunning()) updateTimer.start();
+                break;
+            case COMMIT:
+                updatePending = true;
+                break;
+            default:
+                updateTarget();
+        }
+    }
+
+    private void applySourceChange(boolean adjusting) {
+        if (adjusting) {
+            switch (updatePolicy) {
+                case RELEASE:
+                    updatePending = true;
+                    break;
+                default:
+                    applySourceChange();
+            }
+        } else {
+            switch (updatePolicy) {
+                case RELEASE:
+                case THROTTLE:
+                    updatePending = true;
+                    commit();
+                    break;
+                default:
+                    applySourceChange();
+            }
+        }
+    }
+
+    private void installCommitTriggers(JComponent component) {
+        if (updatePolicy == UpdatePolicy.IMMEDIATE) return;
+        component.addFocusListener(new FocusAdapter() {
+            public void focusLost(FocusEvent event) {
+                commit();
+            }
+        });
+        if (component instanceof JTextField) {
+            ((JTextField) component).addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent event) {
+                    commit();
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void updateTarget() {
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.UPDATE_TARGET, getConstrainedProperty());
+        try {
+            super.updateTarget();
+        } finally {
+            Monitor.end(scope);
+        }
+    }
+
+    @Override
+    protected void updateSource() {
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.UPDATE_SOURCE, getConstrainedProperty());
+        try {
+            super.updateSource();
+        } finally {
+            Monitor.end(scope);
+        }
+    }
+
+    /**
+     * Moves the target of this binding to another value holder, such as the
+     * same property of another command object, and updates the source from
+     * it. Updates still pending for the previous holder are dropped.
+     */
+    public void retarget(AtomicValue property) {
+        if (updateTimer != null) updateTimer.stop();
+        updatePending = false;
+        this.property.removePropertyChangeListener(VALUE, targetChangeListener);
+        this.property = property;
+        property.addPropertyChangeListener(VALUE, targetChangeListener);
+        updateSource();
     }
 
     public void dispose() {
+        Monitor.event(Monitor.Event.BINDING_DISPOSED, source);
+        if (updateTimer != null) {
+            updateTimer.stop();
+            updateTimer = null;
+        }
         source.removePropertyChangeListener(sourcePropertyName, sourceChangeListener);
         property.removePropertyChangeListener(VALUE, targetChangeListener);
         source = null;
-        sourcePropertyDescriptor = null;
+        sourceAccessor = null;
         property = null;
         super.dispose();
     }
@@ -88,15 +235,15 @@ public class PropertyBinding extends AbstractPropertyBinding {
             if ("text".equals(sourcePropertyName)) {
                 final DocumentListener documentListener = new DocumentListener() {
                     public void insertUpdate(DocumentEvent documentEvent) {
-                        updateTarget();
+                        sourceChanged();
                     }
 
                     public void removeUpdate(DocumentEvent documentEvent) {
-                        updateTarget();
+                        sourceChanged();
                     }
 
                     public void changedUpdate(DocumentEvent documentEvent) {
-                        updateTarget();
+                        sourceChanged();
                     }
                 };
                 textComponent.addPropertyChangeListener("document", new PropertyChangeListener() {
@@ -107,6 +254,7 @@ public class PropertyBinding extends AbstractPropertyBinding {
                     }
                 });
                 textComponent.getDocument().addDocumentListener(documentListener);
+                installCommitTriggers(textComponent);
             }
         } else if (source instanceof AbstractButton) {
             AbstractButton buttonComponent = (AbstractButton) source;
@@ -213,7 +361,7 @@ public class PropertyBinding extends AbstractPropertyBinding {
             if ("value".equals(sourcePropertyName)) {
                 final ChangeListener changeListener = new ChangeListener() {
                     public void stateChanged(ChangeEvent changeEvent) {
-                        updateTarget();
+                        sourceChanged(((BoundedRangeModel) changeEvent.getSource()).getValueIsAdjusting());
                     }
                 };
                 sliderComponent.addPropertyChangeListener("model", new PropertyChangeListener() {
@@ -224,13 +372,14 @@ public class PropertyBinding extends AbstractPropertyBinding {
                     }
                 });
                 sliderComponent.getModel().addChangeListener(changeListener);
+                installCommitTriggers(sliderComponent);
             }
         } else if (source instanceof JSpinner) {
             JSpinner spinnerComponent = (JSpinner) source;
             if ("value".equals(sourcePropertyName)) {
                 final ChangeListener changeListener = new ChangeListener() {
                     public void stateChanged(ChangeEvent changeEvent) {
-                        updateTarget();
+                        sourceChanged();
                     }
                 };
                 spinnerComponent.addPropertyChangeListener("model", new PropertyChangeListener() {
@@ -241,6 +390,9 @@ public class PropertyBinding extends AbstractPropertyBinding {
                     }
                 });
                 spinnerComponent.getModel().addChangeListener(changeListener);
+                if (spinnerComponent.getEditor() instanceof JSpinner.DefaultEditor) {
+                    installCommitTriggers(((JSpinner.DefaultEditor) spinnerComponent.getEditor()).getTextField());
+                }
             }
         } else if (source instanceof JTable) {
             JTable tableComponent = (JTable) source;
@@ -291,46 +443,14 @@ public class PropertyBinding extends AbstractPropertyBinding {
     }
 
     protected void setSourcePropertyValue(Object value) {
-        String propertyName = sourcePropertyName;
-
-        if (source instanceof JComboBox) {
-            if ("selectedElement".equals(sourcePropertyName)) {
-                propertyName = "selectedItem";
-            }
-        }
-
-        try {
-            setProperty(source, propertyName, value);
-        } catch (IllegalAccessException e) {
-            throw new GriffonException(e);
-        } catch (InvocationTargetException e) {
-            throw new GriffonException(e);
-        } catch (NoSuchMethodException e) {
-            throw new GriffonException(e);
-        }
+        sourceAccessor.set(source, value);
     }
 
     protected Object getSourcePropertyValue() {
-        String propertyName = sourcePropertyName;
-
-        if (source instanceof JComboBox) {
-            if ("selectedElement".equals(sourcePropertyName)) {
-                propertyName = "selectedItem";
-            }
-        }
-
-        try {
-            return getProperty(source, propertyName);
-        } catch (IllegalAccessException e) {
-            throw new GriffonException(e);
-        } catch (InvocationTargetException e) {
-            throw new GriffonException(e);
-        } catch (NoSuchMethodException e) {
-            throw new GriffonException(e);
-        }
+        return sourceAccessor.get(source);
     }
 
     protected PropertyEditor resolveSourcePropertyEditor() {
-        return PropertyEditorResolver.findEditor(sourcePropertyDescriptor.getPropertyType());
+        return PropertyEditorResolver.findEditor(sourceAccessor.getPropertyType());
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.plugins.validation.Errors;
+import griffon.plugins.validation.Validateable;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static griffon.util.GriffonClassUtils.getStaticPropertyValue;
+
+/**
+ * Validates a subset of the properties of a {@code Validateable}, merging the
+ * results into its existing {@code Errors}.<p>
+ * Cross-field constraints are declared on the command object with a static
+ * {@code constraintDependencies} map, whose keys are the dependent properties
+ * and whose values list the properties they read, for example
+ * {@code static constraintDependencies = [confirmation: ['password']]}.
+ *
+ * @author Andres Almiray
+ */
+public final class PropertyValidator {
+    public static final String CONSTRAINT_DEPENDENCIES = "constraintDependencies";
+
+    private static final ConcurrentMap<Class<?>, Map<String, Set<String>>> DEPENDENTS = new ConcurrentHashMap<Class<?>, Map<String, Set<String>>>();
+
+    private final Validateable validateable;
+    private final Map<String, Set<String>> dependents;
+
+    public PropertyValidator(Validateable validateable) {
+        this.validateable = validateable;
+        this.dependents = dependentsOf(validateable.getClass());
+    }
+
+    public Set<String> affectedBy(Collection<String> propertyNames) {
+        Set<String> affected = new LinkedHashSet<String>();
+        LinkedList<String> queue = new LinkedList<String>(propertyNames);
+        while (!queue.isEmpty()) {
+            String propertyName = queue.removeFirst();
+            if (!affected.add(propertyName)) continue;
+            Set<String> dependentProperties = dependents.get(propertyName);
+            if (dependentProperties != null) queue.addAll(dependentProperties);
+        }
+        return affected;
+    }
+
+    public Set<String> validate(Collection<String> propertyNames) {
+        Set<String> affected = affectedBy(propertyNames);
+        Map<String, ConstrainedProperty> constrainedProperties = validateable.constrainedProperties();
+        Errors errors = validateable.getErrors();
+        for (String propertyName : affected) {
+            ConstrainedProperty constrainedProperty = constrainedProperties.get(propertyName);
+            if (constrainedProperty == null) continue;
+            errors.clearFieldErrors(propertyName);
+            Object value = PropertyAccessor.of(validateable.getClass(), propertyName).get(validateable);
+            constrainedProperty.validate(validateable, value, errors);
+        }
+        return affected;
+    }
+
+    private static Map<String, Set<String>> dependentsOf(Class<?> type) {
+        Map<String, Set<String>> dependents = DEPENDENTS.get(type);
+        if (dependents == null) {
+            dependents = resolveDependents(type);
+            Map<String, Set<String>> existing = DEPENDENTS.putIfAbsent(type, dependents);
+            if (existing != null) dependents = existing;
+        }
+        return dependents;
+    }
+
+    private static Map<String, Set<String>> resolveDependents(Class<?> type) {
+        Object declaration = getStaticPropertyValue(type, CONSTRAINT_DEPENDENCIES);
+        if (!(declaration instanceof Map)) return Collections.emptyMap();
+
+        Map<String, Set<String>> dependents = new LinkedHashMap<String, Set<String>>();
+        for (Object o : ((Map) declaration).entrySet()) {
+            Map.Entry entry = (Map.Entry) o;
+            String dependent = String.valueOf(entry.getKey());
+            Object dependencies = entry.getValue();
+            Collection<?> names = dependencies instanceof Collection ? (Collection<?>) dependencies : Collections.singletonList(dependencies);
+            for (Object name : names) {
+                if (name == null) continue;
+                String dependency = String.valueOf(name);
+                Set<String> set = dependents.get(dependency);
+                if (set == null) {
+                    set = new LinkedHashSet<String>();
+                    dependents.put(dependency, set);
+                }
+                set.add(dependent);
+            }
+        }
+        return Collections.unmodifiableMap(dependents);
+    }
+}
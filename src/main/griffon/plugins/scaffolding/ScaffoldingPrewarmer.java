@@ -0,0 +1,178 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import griffon.builder.css.CSSDecorator;
+import griffon.core.GriffonApplication;
+import griffon.plugins.scaffolding.decorators.ErrorDecoratorRegistry;
+import griffon.plugins.scaffolding.decorators.ErrorIcon;
+import griffon.util.ApplicationClassLoader;
+import net.miginfocom.swing.MigLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValue;
+import static griffon.util.ConfigUtils.getConfigValueAsBoolean;
+
+/**
+ * Loads the resources used by scaffolded forms ahead of their first use:
+ * template classes, decorator classes and icons on a background thread,
+ * then the validation stylesheet, MigLayout and any MVC group listed in
+ * {@code prewarm.groups} on the UI thread.<p>
+ * {@code prewarm.groups} is either a list of MVC group types or a map of
+ * MVC group types to the arguments each one must be built with. Groups are
+ * built under their own id and destroyed right away, so they never clash
+ * with instances created by the application.
+ *
+ * @author Andres Almiray
+ */
+public final class ScaffoldingPrewarmer implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(ScaffoldingPrewarmer.class);
+
+    public static final String KEY_PREWARM_ENABLED = "prewarm.enabled";
+    public static final String KEY_PREWARM_GROUPS = "prewarm.groups";
+    public static final String MVC_ID_PREFIX = "scaffolding-prewarm-";
+
+    private static final String TEMPLATES_PACKAGE = "griffon.plugins.scaffolding.templates.";
+    private static final String[] TEMPLATES = {
+        "Boolean", "CheckBox", "ComboBox", "EditorPane", "Enum", "Label",
+        "Labeler", "Slider", "Spinner", "String", "TextArea", "TextField", "Unknown"
+    };
+
+    private final GriffonApplication app;
+
+    public static boolean isEnabled() {
+        return getConfigValueAsBoolean(getUiDefaults(), KEY_PREWARM_ENABLED, false);
+    }
+
+    public ScaffoldingPrewarmer(GriffonApplication app) {
+        this.app = app;
+    }
+
+    public void start() {
+        Thread thread = new Thread(this, "scaffolding-prewarm");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    public void run() {
+        long start = System.currentTimeMillis();
+        loadTemplates();
+        loadDecorators();
+        app.execInsideUIAsync(new Runnable() {
+            public void run() {
+                warmUpComponents();
+                for (Map.Entry<String, Map<String, Object>> group : groups().entrySet()) {
+                    prebuildGroup(group.getKey(), group.getValue());
+                }
+            }
+        });
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Scaffolding resources loaded in " + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+    private void loadTemplates() {
+        ClassLoader classLoader = ApplicationClassLoader.get();
+        for (String template : TEMPLATES) {
+            String className = TEMPLATES_PACKAGE + template + "Template";
+            try {
+                Class.forName(className, true, classLoader);
+            } catch (Throwable t) {
+                LOG.debug("Could not preload " + className, t);
+            }
+        }
+    }
+
+    private void loadDecorators() {
+        try {
+            ErrorIcon.ACCEPT.preload();
+            ErrorIcon.CANCEL.preload();
+            new ErrorDecoratorRegistry(app).create(null);
+        } catch (RuntimeException e) {
+            LOG.debug("Could not preload error decorators", e);
+        }
+    }
+
+    private void warmUpComponents() {
+        try {
+            JPanel panel = new JPanel(new MigLayout("wrap 2", "[left][left, grow]"));
+            panel.add(new JLabel("label"), "top, left");
+            panel.add(new JTextField(20), "top, grow");
+            panel.setSize(panel.getPreferredSize());
+            panel.doLayout();
+            CSSDecorator.decorate("validation", panel);
+        } catch (RuntimeException e) {
+            LOG.debug("Could not warm up form components", e);
+        }
+    }
+
+    private void prebuildGroup(String group, Map<String, Object> args) {
+        String mvcId = MVC_ID_PREFIX + group;
+        try {
+            app.buildMVCGroup(args, group, mvcId);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not prebuild scaffolded form " + group, e);
+            return;
+        }
+        destroyGroup(group, mvcId);
+    }
+
+    private void destroyGroup(String group, String mvcId) {
+        try {
+            app.destroyMVCGroup(mvcId);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not destroy prebuilt scaffolded form " + group, e);
+        }
+    }
+
+    private static Map<String, Map<String, Object>> groups() {
+        Object groups = getConfigValue(getUiDefaults(), KEY_PREWARM_GROUPS, null);
+        Map<String, Map<String, Object>> names = new LinkedHashMap<String, Map<String, Object>>();
+        if (groups instanceof Map) {
+            for (Object o : ((Map) groups).entrySet()) {
+                Map.Entry entry = (Map.Entry) o;
+                if (entry.getKey() == null) continue;
+                Map<String, Object> args = new LinkedHashMap<String, Object>();
+                if (entry.getValue() instanceof Map) {
+                    for (Object a : ((Map) entry.getValue()).entrySet()) {
+                        Map.Entry arg = (Map.Entry) a;
+                        args.put(String.valueOf(arg.getKey()), arg.getValue());
+                    }
+                }
+                names.put(String.valueOf(entry.getKey()), args);
+            }
+        } else if (groups instanceof Collection) {
+            for (Object group : (Collection) groups) {
+                if (group != null) names.put(String.valueOf(group), Collections.<String, Object>emptyMap());
+            }
+        } else if (groups != null) {
+            names.put(String.valueOf(groups), Collections.<String, Object>emptyMap());
+        }
+        return names;
+    }
+}
@@ -17,20 +17,60 @@
 package griffon.plugins.scaffolding;
 
 import griffon.builder.css.CssClass;
+import griffon.plugins.scaffolding.monitor.Monitor;
+import griffon.plugins.validation.Errors;
+import griffon.plugins.validation.FieldObjectError;
 import griffon.plugins.validation.constraints.ConstrainedProperty;
-import groovy.lang.MissingPropertyException;
 
 import javax.swing.JComponent;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.SwingUtilities;
+import javax.swing.text.JTextComponent;
 import java.awt.Component;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.feature50.clarity.ClarityConstants.CLIENT_PROPERTY_CLASS_KEY;
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValueAsBoolean;
+import static griffon.util.ConfigUtils.getConfigValueAsInt;
+import static griffon.util.ConfigUtils.getConfigValueAsString;
 import static griffon.util.GriffonNameUtils.isBlank;
 
 /**
  * @author Andres Almiray
  */
 public final class SwingScaffoldingContext extends ScaffoldingContext {
+    private static final String VALUE = "value";
+    private static final String KEY_UPDATE_POLICY = "updatePolicy";
+    private static final String KEY_UPDATE_DELAY = "updateDelay";
+    private static final String KEY_BINDINGS_TEXT = "bindings.text";
+    private static final String KEY_BINDINGS_ADJUSTABLE = "bindings.adjustable";
+    private static final int DEFAULT_TEXT_UPDATE_DELAY = 250;
+    private static final int DEFAULT_ADJUSTABLE_UPDATE_DELAY = 40;
+    private static final String KEY_VALIDATION_INCREMENTAL = "validation.incremental";
+    private static final String KEY_VALIDATION_ASYNC = "validation.async";
+
+    private final List<PropertyBinding> bindings = new ArrayList<PropertyBinding>();
+    private final Map<String, AtomicValue> valueHolders = new LinkedHashMap<String, AtomicValue>();
+    private final Map<String, PropertyChangeListener> valueListeners = new LinkedHashMap<String, PropertyChangeListener>();
+    private PropertyValidator propertyValidator;
+    private Boolean incrementalValidation;
+    private Boolean asyncValidation;
+    private AsyncValidator asyncValidator;
+    private final Map<String, FieldState> fieldStates = new LinkedHashMap<String, FieldState>();
+    private final Map<String, List<FieldStateListener>> fieldStateListeners = new LinkedHashMap<String, List<FieldStateListener>>();
+    private final FormIndex formIndex = new FormIndex();
+
     public SwingScaffoldingContext() {
 
     }
@@ -39,114 +79,435 @@ public final class SwingScaffoldingContext extends ScaffoldingContext {
     public Map<String, Object> widgetAttributes(String widget, ConstrainedProperty constrainedProperty) {
         Map<String, Object> attributes = super.widgetAttributes(widget, constrainedProperty);
         attributes.put("enabled", constrainedProperty.isEnabled());
+        attributes.remove(KEY_UPDATE_POLICY);
+        attributes.remove(KEY_UPDATE_DELAY);
         return attributes;
     }
 
     public void bind(Component source, String propertyName, AtomicValue property, ConstrainedProperty constrainedProperty) {
-        addDisposable(PropertyBinding.create(source, propertyName, property, constrainedProperty));
+        UpdatePolicy updatePolicy = UpdatePolicy.IMMEDIATE;
+        int updateDelay = 0;
+        if (source instanceof JTextComponent) {
+            updatePolicy = resolveUpdatePolicy(KEY_BINDINGS_TEXT, constrainedProperty);
+            updateDelay = resolveUpdateDelay(KEY_BINDINGS_TEXT, constrainedProperty, DEFAULT_TEXT_UPDATE_DELAY);
+        } else if (source instanceof JSlider || source instanceof JSpinner) {
+            updatePolicy = resolveUpdatePolicy(KEY_BINDINGS_ADJUSTABLE, constrainedProperty);
+            updateDelay = resolveUpdateDelay(KEY_BINDINGS_ADJUSTABLE, constrainedProperty, DEFAULT_ADJUSTABLE_UPDATE_DELAY);
+        }
+
+        PropertyBinding binding = PropertyBinding.create(source, propertyName, property, constrainedProperty, updatePolicy, updateDelay);
+        bindings.add(binding);
+        watchValue(constrainedProperty.getPropertyName(), property);
     }
 
-    public void applyCssOnError(String... cssclasses) {
-        if (cssclasses == null || cssclasses.length == 0) return;
-        for (Map.Entry<String, ConstrainedProperty> property : getValidateable().constrainedProperties().entrySet()) {
-            String propertyName = property.getKey();
-            ConstrainedProperty constrainedProperty = property.getValue();
-            if (!constrainedProperty.isDisplay()) continue;
-            boolean hasErrors = getValidateable().getErrors().getFieldErrorCount(propertyName) != 0;
-            try {
-                JComponent labeler = (JComponent) getBinding().getVariable(propertyName + "_labeler");
-                if (labeler != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    if (hasErrors) {
-                        cssClass.addAll(cssclasses);
-                    } else {
-                        cssClass.removeAll(cssclasses);
-                    }
-                }
-                JComponent editor = (JComponent) getBinding().getVariable(propertyName);
-                if (editor != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    if (hasErrors) {
-                        cssClass.addAll(cssclasses);
-                    } else {
-                        cssClass.removeAll(cssclasses);
-                    }
-                }
-            } catch (MissingPropertyException mpe) {
-                // ignore
+    /**
+     * Hands the bindings of the built form over to the caller, which then
+     * takes care of disposing them; used when a form outlives its MVC group.
+     */
+    public List<PropertyBinding> detachBindings() {
+        List<PropertyBinding> detached = new ArrayList<PropertyBinding>(bindings);
+        bindings.clear();
+        return detached;
+    }
+
+    /**
+     * Takes over a binding of a form built for another command object of
+     * the same type; the widget then shows the value of this context's
+     * command object.
+     */
+    public void attachBinding(PropertyBinding binding) {
+        String propertyName = binding.getConstrainedProperty().getPropertyName();
+        AtomicValue property = valueHolder(propertyName);
+        binding.retarget(property);
+        bindings.add(binding);
+        watchValue(propertyName, property);
+    }
+
+    /**
+     * Returns the value holder of the given property as described by the
+     * {@code FormSchema} of the command object.
+     */
+    public AtomicValue valueHolder(String propertyName) {
+        AtomicValue holder = valueHolders.get(propertyName);
+        if (holder != null) return holder;
+        return FormSchema.of(getValidateable().getClass()).valueHolder(getValidateable(), propertyName);
+    }
+
+    public void commitPendingUpdates() {
+        for (PropertyBinding binding : bindings) {
+            binding.commit();
+        }
+    }
+
+    public boolean isIncrementalValidation() {
+        if (incrementalValidation == null) {
+            incrementalValidation = getConfigValueAsBoolean(getUiDefaults(), KEY_VALIDATION_INCREMENTAL, false);
+        }
+        return incrementalValidation;
+    }
+
+    public void setIncrementalValidation(boolean incrementalValidation) {
+        this.incrementalValidation = incrementalValidation;
+    }
+
+    public boolean isAsyncValidation() {
+        if (asyncValidation == null) {
+            asyncValidation = getConfigValueAsBoolean(getUiDefaults(), KEY_VALIDATION_ASYNC, false);
+        }
+        return asyncValidation;
+    }
+
+    public void setAsyncValidation(boolean asyncValidation) {
+        this.asyncValidation = asyncValidation;
+    }
+
+    public boolean validate() {
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.VALIDATION, getValidateable().getClass());
+        try {
+            getValidateable().getErrors().clearAllErrors();
+            getValidateable().validate();
+        } finally {
+            Monitor.end(scope);
+        }
+        refreshFieldStates();
+        return !getValidateable().getErrors().hasErrors();
+    }
+
+    public void validateAsync(final AsyncValidator.Callback callback) {
+        if (asyncValidator == null) {
+            asyncValidator = new AsyncValidator(getValidateable());
+        }
+        asyncValidator.validate(new AsyncValidator.Callback() {
+            public void validated(boolean valid) {
+                refreshFieldStates();
+                if (callback != null) callback.validated(valid);
             }
+        });
+    }
+
+    public void cancelPendingValidation() {
+        if (asyncValidator != null) asyncValidator.cancel();
+    }
+
+    public Set<String> validateProperties(Collection<String> propertyNames) {
+        if (propertyValidator == null) {
+            propertyValidator = new PropertyValidator(getValidateable());
         }
+        Set<String> affected;
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.VALIDATION, getValidateable().getClass());
+        try {
+            affected = propertyValidator.validate(propertyNames);
+        } finally {
+            Monitor.end(scope);
+        }
+        refreshFieldStates(affected);
+        return affected;
     }
 
-    public void addCss(String... cssclasses) {
-        if (cssclasses == null || cssclasses.length == 0) return;
-        for (Map.Entry<String, ConstrainedProperty> property : getValidateable().constrainedProperties().entrySet()) {
-            String propertyName = property.getKey();
-            ConstrainedProperty constrainedProperty = property.getValue();
-            if (!constrainedProperty.isDisplay()) continue;
-            try {
-                JComponent labeler = (JComponent) getBinding().getVariable(propertyName + "_labeler");
-                if (labeler != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    cssClass.addAll(cssclasses);
+    /**
+     * Returns the cached state of the given property; this is called while
+     * painting, so it never queries {@code Errors} once a state is cached nor
+     * notifies listeners. The cache is refreshed wherever this context writes
+     * errors; code that changes the {@code Errors} of the command object
+     * directly must call {@link #refreshFieldStates()} afterwards.
+     */
+    public FieldState getFieldState(String propertyName) {
+        FieldState state = fieldStates.get(propertyName);
+        if (state == null) {
+            state = computeFieldState(propertyName);
+            fieldStates.put(propertyName, state);
+        }
+        return state;
+    }
+
+    /**
+     * Clears every error of the command object and refreshes the cached
+     * field states.
+     */
+    public void clearAllErrors() {
+        getValidateable().getErrors().clearAllErrors();
+        refreshFieldStates();
+    }
+
+    public void addFieldStateListener(String propertyName, FieldStateListener listener) {
+        if (listener == null) return;
+        List<FieldStateListener> listeners = fieldStateListeners.get(propertyName);
+        if (listeners == null) {
+            listeners = new ArrayList<FieldStateListener>();
+            fieldStateListeners.put(propertyName, listeners);
+        }
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    public void removeFieldStateListener(String propertyName, FieldStateListener listener) {
+        List<FieldStateListener> listeners = fieldStateListeners.get(propertyName);
+        if (listeners != null) listeners.remove(listener);
+    }
+
+    public void refreshFieldStates() {
+        refreshFieldStates(getValidateable().constrainedProperties().keySet());
+    }
+
+    public void refreshFieldStates(Collection<String> propertyNames) {
+        for (String propertyName : propertyNames) {
+            FieldState oldState = fieldStates.get(propertyName);
+            FieldState newState = computeFieldState(propertyName);
+            if (newState.equals(oldState)) continue;
+            fieldStates.put(propertyName, newState);
+            fireFieldStateChanged(oldState != null ? oldState : FieldState.valid(propertyName), newState);
+        }
+    }
+
+    private void refreshValueState(String propertyName) {
+        FieldState oldState = fieldStates.get(propertyName);
+        if (oldState == null) return;
+        FieldState newState = oldState.withValueEmpty(isValueEmpty(propertyName));
+        if (newState == oldState) return;
+        fieldStates.put(propertyName, newState);
+        fireFieldStateChanged(oldState, newState);
+    }
+
+    private boolean isValueEmpty(String propertyName) {
+        AtomicValue holder = valueHolders.get(propertyName);
+        if (holder == null) {
+            FormSchema.Property property = FormSchema.of(getValidateable().getClass()).getProperty(propertyName);
+            if (property != null) holder = property.valueHolder(getValidateable());
+        }
+        Object value = holder != null ? holder.getValue() : PropertyAccessor.of(getValidateable().getClass(), propertyName).get(getValidateable());
+        return value == null || value instanceof CharSequence && isBlank(String.valueOf(value));
+    }
+
+    private void fireFieldStateChanged(FieldState oldState, FieldState newState) {
+        List<FieldStateListener> listeners = fieldStateListeners.get(newState.getPropertyName());
+        if (listeners == null || listeners.isEmpty()) return;
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.FIELD_STATE_CHANGE, newState.getPropertyName());
+        try {
+            for (FieldStateListener listener : listeners.toArray(new FieldStateListener[listeners.size()])) {
+                listener.fieldStateChanged(oldState, newState);
+            }
+        } finally {
+            Monitor.end(scope);
+        }
+    }
+
+    private FieldState computeFieldState(String propertyName) {
+        Errors errors = getValidateable().getErrors();
+        boolean valueEmpty = isValueEmpty(propertyName);
+        if (errors.getFieldErrorCount(propertyName) == 0) {
+            return FieldState.valid(propertyName).withValueEmpty(valueEmpty);
+        }
+
+        List<FieldObjectError> fieldErrors = errors.getFieldErrors(propertyName);
+        String[] codes = new String[fieldErrors.size()];
+        for (int i = 0; i < codes.length; i++) {
+            String[] errorCodes = fieldErrors.get(i).getCodes();
+            codes[i] = errorCodes != null && errorCodes.length > 0 ? errorCodes[0] : null;
+        }
+        return new FieldState(propertyName, resolveFieldErrorMessages(fieldErrors), codes, valueEmpty);
+    }
+
+    protected void propertyValueChanged(final String propertyName) {
+        cancelPendingValidation();
+        if (SwingUtilities.isEventDispatchThread()) {
+            refreshValueState(propertyName);
+        } else {
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    refreshValueState(propertyName);
                 }
-                JComponent editor = (JComponent) getBinding().getVariable(propertyName);
-                if (editor != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    cssClass.addAll(cssclasses);
+            });
+        }
+        if (!isIncrementalValidation()) return;
+        if (SwingUtilities.isEventDispatchThread()) {
+            validateProperties(Collections.singletonList(propertyName));
+        } else {
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    validateProperties(Collections.singletonList(propertyName));
+                }
+            });
+        }
+    }
+
+    private void watchValue(final String propertyName, AtomicValue property) {
+        if (valueHolders.containsKey(propertyName)) return;
+        final Runnable valueChanged = new Runnable() {
+            public void run() {
+                propertyValueChanged(propertyName);
+            }
+        };
+        PropertyChangeListener listener = new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent event) {
+                Monitor.Scope scope = Monitor.begin(Monitor.Operation.VALUE_CHANGE, propertyName);
+                try {
+                    if (!BatchUpdate.defer(this, valueChanged)) valueChanged.run();
+                } finally {
+                    Monitor.end(scope);
                 }
-            } catch (MissingPropertyException mpe) {
-                // ignore
             }
+        };
+        property.addPropertyChangeListener(VALUE, listener);
+        valueHolders.put(propertyName, property);
+        valueListeners.put(propertyName, listener);
+    }
+
+    @Override
+    public void dispose() {
+        for (Map.Entry<String, AtomicValue> entry : valueHolders.entrySet()) {
+            entry.getValue().removePropertyChangeListener(VALUE, valueListeners.get(entry.getKey()));
+        }
+        valueHolders.clear();
+        valueListeners.clear();
+        for (PropertyBinding binding : bindings) {
+            binding.dispose();
         }
+        bindings.clear();
+        cancelPendingValidation();
+        asyncValidator = null;
+        propertyValidator = null;
+        fieldStates.clear();
+        fieldStateListeners.clear();
+        formIndex.clear();
+        super.dispose();
     }
 
-    public void removeCss(String... cssclasses) {
-        if (cssclasses == null || cssclasses.length == 0) return;
-        for (Map.Entry<String, ConstrainedProperty> property : getValidateable().constrainedProperties().entrySet()) {
-            String propertyName = property.getKey();
-            ConstrainedProperty constrainedProperty = property.getValue();
-            if (!constrainedProperty.isDisplay()) continue;
+    private UpdatePolicy resolveUpdatePolicy(String prefix, ConstrainedProperty constrainedProperty) {
+        UpdatePolicy defaultPolicy = UpdatePolicy.parse(getConfigValueAsString(getUiDefaults(), prefix + ".policy", null), UpdatePolicy.IMMEDIATE);
+        Map attributes = constrainedProperty.getAttributes();
+        return UpdatePolicy.parse(attributes != null ? attributes.get(KEY_UPDATE_POLICY) : null, defaultPolicy);
+    }
+
+    private int resolveUpdateDelay(String prefix, ConstrainedProperty constrainedProperty, int fallbackDelay) {
+        int defaultDelay = getConfigValueAsInt(getUiDefaults(), prefix + ".delay", fallbackDelay);
+        Map attributes = constrainedProperty.getAttributes();
+        Object delay = attributes != null ? attributes.get(KEY_UPDATE_DELAY) : null;
+        if (delay instanceof Number) return ((Number) delay).intValue();
+        if (delay != null) {
             try {
-                JComponent labeler = (JComponent) getBinding().getVariable(propertyName + "_labeler");
-                if (labeler != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    cssClass.removeAll(cssclasses);
-                }
-                JComponent editor = (JComponent) getBinding().getVariable(propertyName);
-                if (editor != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    cssClass.removeAll(cssclasses);
-                }
-            } catch (MissingPropertyException mpe) {
+                return Integer.parseInt(String.valueOf(delay).trim());
+            } catch (NumberFormatException e) {
                 // ignore
             }
         }
+        return defaultDelay;
+    }
+
+    public void applyCssOnError(String... cssclasses) {
+        applyCssOnErrorChanged(cssclasses);
+    }
+
+    public void addCss(String... cssclasses) {
+        addCssChanged(cssclasses);
+    }
+
+    public void removeCss(String... cssclasses) {
+        removeCssChanged(cssclasses);
     }
 
     public void toggleCss(String cssclass) {
-        if (isBlank(cssclass)) return;
-        for (Map.Entry<String, ConstrainedProperty> property : getValidateable().constrainedProperties().entrySet()) {
-            String propertyName = property.getKey();
-            ConstrainedProperty constrainedProperty = property.getValue();
-            if (!constrainedProperty.isDisplay()) continue;
-            try {
-                JComponent labeler = (JComponent) getBinding().getVariable(propertyName + "_labeler");
-                if (labeler != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    cssClass.toggle(cssclass);
-                }
-                JComponent editor = (JComponent) getBinding().getVariable(propertyName);
-                if (editor != null) {
-                    CssClass cssClass = cssClassOf(labeler);
-                    cssClass.toggle(cssclass);
+        toggleCssChanged(cssclass);
+    }
+
+    /**
+     * Adds the given classes to the labeler and editor of every property with
+     * errors and removes them from every other property. Only components whose
+     * classes actually change are touched; they are returned so that callers
+     * can restyle just those.
+     */
+    public Collection<JComponent> applyCssOnErrorChanged(String... cssclasses) {
+        Set<JComponent> changed = new LinkedHashSet<JComponent>();
+        if (cssclasses == null || cssclasses.length == 0) return changed;
+        Errors errors = getValidateable().getErrors();
+        for (FormPlan.Entry entry : FormPlan.of(this).getEntries()) {
+            String propertyName = entry.getPropertyName();
+            updateCss(propertyName, cssclasses, errors.getFieldErrorCount(propertyName) != 0, changed);
+        }
+        return changed;
+    }
+
+    public Collection<JComponent> addCssChanged(String... cssclasses) {
+        Set<JComponent> changed = new LinkedHashSet<JComponent>();
+        if (cssclasses == null || cssclasses.length == 0) return changed;
+        for (FormPlan.Entry entry : FormPlan.of(this).getEntries()) {
+            updateCss(entry.getPropertyName(), cssclasses, true, changed);
+        }
+        return changed;
+    }
+
+    public Collection<JComponent> removeCssChanged(String... cssclasses) {
+        Set<JComponent> changed = new LinkedHashSet<JComponent>();
+        if (cssclasses == null || cssclasses.length == 0) return changed;
+        for (FormPlan.Entry entry : FormPlan.of(this).getEntries()) {
+            updateCss(entry.getPropertyName(), cssclasses, false, changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Toggles the given class on the labeler and editor of every property,
+     * according to the classes each component currently has.
+     */
+    public Collection<JComponent> toggleCssChanged(String cssclass) {
+        Set<JComponent> changed = new LinkedHashSet<JComponent>();
+        if (isBlank(cssclass)) return changed;
+        for (FormPlan.Entry entry : FormPlan.of(this).getEntries()) {
+            updateCss(entry.getPropertyName(), new String[]{cssclass}, null, changed);
+        }
+        return changed;
+    }
+
+    // a null add toggles each class
+    private void updateCss(String propertyName, String[] cssclasses, Boolean add, Collection<JComponent> changed) {
+        for (JComponent component : cssTargetsOf(propertyName)) {
+            CssClass cssClass = cssClassOf(component);
+            if (cssClass == null) continue;
+            for (String cssclass : cssclasses) {
+                // classes may also be set outside of this context; read them from the component
+                boolean present = cssClass.contains(cssclass);
+                boolean wanted = add != null ? add : !present;
+                if (wanted == present) continue;
+                if (wanted) {
+                    cssClass.add(cssclass);
+                } else {
+                    cssClass.remove(cssclass);
                 }
-            } catch (MissingPropertyException mpe) {
-                // ignore
+                changed.add(component);
             }
         }
     }
 
+    private List<JComponent> cssTargetsOf(String propertyName) {
+        List<JComponent> targets = new ArrayList<JComponent>(2);
+        JComponent labeler = getLabeler(propertyName);
+        if (labeler != null) targets.add(labeler);
+        JComponent editor = getEditor(propertyName);
+        if (editor != null) targets.add(editor);
+        return targets;
+    }
+
+    public FormIndex getFormIndex() {
+        return formIndex;
+    }
+
+    public JComponent getLabeler(String propertyName) {
+        FormIndex.Entry entry = formIndex.get(propertyName);
+        if (entry != null) return entry.getLabeler();
+        return componentVariable(propertyName + "_labeler");
+    }
+
+    public JComponent getEditor(String propertyName) {
+        FormIndex.Entry entry = formIndex.get(propertyName);
+        if (entry != null) return entry.getEditor();
+        return componentVariable(propertyName);
+    }
+
+    // widgets built without an errorDecorator node are not indexed
+    private JComponent componentVariable(String name) {
+        if (getBinding() == null) return null;
+        Object component = getBinding().getVariables().get(name);
+        return component instanceof JComponent ? (JComponent) component : null;
+    }
+
     private CssClass cssClassOf(JComponent component) {
         Object clientProperty = component.getClientProperty(CLIENT_PROPERTY_CLASS_KEY);
         if (clientProperty == null) {
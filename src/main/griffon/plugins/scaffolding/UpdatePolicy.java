@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding;
+
+import java.util.Locale;
+
+import static griffon.util.GriffonNameUtils.isBlank;
+
+/**
+ * Defines when a {@code PropertyBinding} pushes source changes to its target.
+ *
+ * @author Andres Almiray
+ */
+public enum UpdatePolicy {
+    IMMEDIATE,
+    DEBOUNCE,
+    COMMIT,
+    RELEASE,
+    THROTTLE;
+
+    public static UpdatePolicy parse(Object value, UpdatePolicy defaultValue) {
+        if (value instanceof UpdatePolicy) return (UpdatePolicy) value;
+        if (value == null || isBlank(String.valueOf(value))) return defaultValue;
+        try {
+            return valueOf(String.valueOf(value).trim().toUpperCase(Locale.ENGLISH).replace(" ", "_"));
+        } catch (IllegalArgumentException e) {
+            return defaultValue;
+        }
+    }
+}
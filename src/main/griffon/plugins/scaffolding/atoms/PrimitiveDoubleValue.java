@@ -0,0 +1,68 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.atoms;
+
+/**
+ * Holder for primitive {@code double} properties. {@code getDouble} and {@code setDouble}
+ * work on an unboxed copy of the value; {@code setDouble} only boxes the value
+ * and fires a change event when the value actually changes. The unboxed
+ * copy is updated before listeners are notified; the event itself carries
+ * boxed values, as every {@code PropertyChangeEvent} does.
+ *
+ * @author Andres Almiray
+ */
+public class PrimitiveDoubleValue extends DoubleValue {
+    private double primitiveValue;
+
+    public PrimitiveDoubleValue() {
+        setPrimitive(true);
+    }
+
+    public double getDouble() {
+        return primitiveValue;
+    }
+
+    public void setDouble(double value) {
+        if (Double.doubleToLongBits(primitiveValue) == Double.doubleToLongBits(value) && getValue() != null) return;
+        double previous = primitiveValue;
+        // listeners of the change event read the property through the unboxed copy
+        primitiveValue = value;
+        try {
+            super.setValue(Double.valueOf(value));
+        } catch (RuntimeException e) {
+            primitiveValue = previous;
+            throw e;
+        }
+    }
+
+    @Override
+    public void setValue(Object value) {
+        double previous = primitiveValue;
+        if (value == null || value instanceof Number) {
+            primitiveValue = value != null ? ((Number) value).doubleValue() : 0d;
+        }
+        try {
+            super.setValue(value);
+        } catch (RuntimeException e) {
+            primitiveValue = previous;
+            throw e;
+        }
+        // values converted by the holder are only known afterwards
+        Object current = getValue();
+        primitiveValue = current != null ? ((Number) current).doubleValue() : 0d;
+    }
+}
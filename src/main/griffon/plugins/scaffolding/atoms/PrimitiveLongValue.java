@@ -0,0 +1,68 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.atoms;
+
+/**
+ * Holder for primitive {@code long} properties. {@code getLong} and {@code setLong}
+ * work on an unboxed copy of the value; {@code setLong} only boxes the value
+ * and fires a change event when the value actually changes. The unboxed
+ * copy is updated before listeners are notified; the event itself carries
+ * boxed values, as every {@code PropertyChangeEvent} does.
+ *
+ * @author Andres Almiray
+ */
+public class PrimitiveLongValue extends LongValue {
+    private long primitiveValue;
+
+    public PrimitiveLongValue() {
+        setPrimitive(true);
+    }
+
+    public long getLong() {
+        return primitiveValue;
+    }
+
+    public void setLong(long value) {
+        if (primitiveValue == value && getValue() != null) return;
+        long previous = primitiveValue;
+        // listeners of the change event read the property through the unboxed copy
+        primitiveValue = value;
+        try {
+            super.setValue(Long.valueOf(value));
+        } catch (RuntimeException e) {
+            primitiveValue = previous;
+            throw e;
+        }
+    }
+
+    @Override
+    public void setValue(Object value) {
+        long previous = primitiveValue;
+        if (value == null || value instanceof Number) {
+            primitiveValue = value != null ? ((Number) value).longValue() : 0L;
+        }
+        try {
+            super.setValue(value);
+        } catch (RuntimeException e) {
+            primitiveValue = previous;
+            throw e;
+        }
+        // values converted by the holder are only known afterwards
+        Object current = getValue();
+        primitiveValue = current != null ? ((Number) current).longValue() : 0L;
+    }
+}
@@ -49,4 +49,12 @@ public abstract class AbstractErrorDecorator<V extends JComponent> implements Er
         Component component = SwingUtils.findComponentByName(constrainedProperty.getPropertyName() + "_labeler", layer.getParent());
         return component instanceof JComponent ? (JComponent) component : null;
     }
+
+    protected JComponent viewOf(JComponent host) {
+        if (host instanceof JXLayer) {
+            JComponent view = ((JXLayer<?>) host).getView();
+            return view != null ? view : host;
+        }
+        return host;
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.decorators;
+
+import griffon.plugins.scaffolding.FieldState;
+import griffon.plugins.scaffolding.ScaffoldingContext;
+import griffon.plugins.scaffolding.SwingScaffoldingContext;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+import griffon.swing.SwingUtils;
+import org.jdesktop.jxlayer.JXLayer;
+
+import javax.swing.JComponent;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+
+/**
+ * Base class of {@code FieldErrorDecorator}s. The layer based paint methods
+ * delegate to the field based ones, so these decorators can still be painted
+ * by code written against {@code ErrorDecorator}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class AbstractFieldErrorDecorator<V extends JComponent> extends AbstractErrorDecorator<V> implements FieldErrorDecorator<V> {
+    public void paintLayerWithErrors(Graphics2D g2, V view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
+
+    }
+
+    public void paintLayerWithNoErrors(Graphics2D g2, V view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
+
+    }
+
+    @Override
+    public void paintLayerWithErrors(Graphics2D g2, JXLayer<? extends V> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
+        V view = layer.getView();
+        if (view == null) return;
+        Graphics2D g = (Graphics2D) g2.create();
+        try {
+            g.translate(view.getX(), view.getY());
+            paintLayerWithErrors(g, view, scaffoldingContext, constrainedProperty, FieldState.of(scaffoldingContext, constrainedProperty.getPropertyName()));
+        } finally {
+            g.dispose();
+        }
+    }
+
+    @Override
+    public void paintLayerWithNoErrors(Graphics2D g2, JXLayer<? extends V> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
+        V view = layer.getView();
+        if (view == null) return;
+        Graphics2D g = (Graphics2D) g2.create();
+        try {
+            g.translate(view.getX(), view.getY());
+            paintLayerWithNoErrors(g, view, scaffoldingContext, constrainedProperty, FieldState.of(scaffoldingContext, constrainedProperty.getPropertyName()));
+        } finally {
+            g.dispose();
+        }
+    }
+
+    protected JComponent labelFor(ScaffoldingContext scaffoldingContext, V view, ConstrainedProperty constrainedProperty) {
+        if (scaffoldingContext instanceof SwingScaffoldingContext) {
+            return ((SwingScaffoldingContext) scaffoldingContext).getLabeler(constrainedProperty.getPropertyName());
+        }
+        return labelFor(view, constrainedProperty);
+    }
+
+    /**
+     * Searches the container of the view; prefer the variant that takes a
+     * {@code ScaffoldingContext}, which does not walk the component tree.
+     */
+    protected JComponent labelFor(V view, ConstrainedProperty constrainedProperty) {
+        Container container = view.getParent() instanceof JXLayer ? view.getParent().getParent() : view.getParent();
+        if (container == null) return null;
+        Component component = SwingUtils.findComponentByName(constrainedProperty.getPropertyName() + "_labeler", container);
+        return component instanceof JComponent ? (JComponent) component : null;
+    }
+}
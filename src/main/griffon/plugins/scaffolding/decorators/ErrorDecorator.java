@@ -24,6 +24,11 @@ import javax.swing.JComponent;
 import java.awt.Graphics2D;
 
 /**
+ * Paints the validation state of a single property on the {@code JXLayer}
+ * wrapping its widget, in layer coordinates.<p>
+ * Decorators implementing {@link FieldErrorDecorator} are painted through
+ * its methods instead, and may also be hosted by a form level overlay.
+ *
  * @author Andres Almiray
  */
 public interface ErrorDecorator<V extends JComponent> {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.decorators;
+
+import griffon.core.GriffonApplication;
+import griffon.exceptions.GriffonException;
+import griffon.util.ApplicationClassLoader;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValueAsString;
+import static griffon.util.GriffonNameUtils.isBlank;
+
+/**
+ * Creates the decorators of a form.<p>
+ * Decorator lists and classes are resolved once and cached for the lifetime
+ * of the application. Decorators annotated with {@code @Stateless} are
+ * instantiated once per registry and shared by every field it decorates.
+ *
+ * @author Andres Almiray
+ */
+public final class ErrorDecoratorRegistry {
+    public static final String KEY_ERRORS_DECORATORS_DEFAULTS = "errors.decorators.defaults";
+    public static final String DEFAULT_DECORATORS = "icon, tooltip";
+
+    private static final Map<String, Class<?>> BUILTIN_DECORATORS = new LinkedHashMap<String, Class<?>>();
+    private static final ConcurrentMap<String, List<Constructor<?>>> DECLARATIONS = new ConcurrentHashMap<String, List<Constructor<?>>>();
+    private static volatile String defaultDecorators;
+
+    static {
+        BUILTIN_DECORATORS.put("icon", IconErrorDecorator.class);
+        BUILTIN_DECORATORS.put("mask", MaskErrorDecorator.class);
+        BUILTIN_DECORATORS.put("tooltip", TooltipErrorDecorator.class);
+    }
+
+    private final GriffonApplication app;
+    private final Map<Constructor<?>, ErrorDecorator> sharedDecorators = new HashMap<Constructor<?>, ErrorDecorator>();
+
+    public ErrorDecoratorRegistry(GriffonApplication app) {
+        this.app = app;
+    }
+
+    public List<ErrorDecorator> create(String declaration) {
+        if (isBlank(declaration)) declaration = defaultDecorators();
+        List<ErrorDecorator> decorators = new ArrayList<ErrorDecorator>();
+        for (Constructor<?> constructor : resolve(declaration)) {
+            if (constructor.getDeclaringClass().isAnnotationPresent(Stateless.class)) {
+                ErrorDecorator decorator = sharedDecorators.get(constructor);
+                if (decorator == null) {
+                    decorator = instantiate(constructor);
+                    sharedDecorators.put(constructor, decorator);
+                }
+                decorators.add(decorator);
+            } else {
+                decorators.add(instantiate(constructor));
+            }
+        }
+        return decorators;
+    }
+
+    public static void clear() {
+        defaultDecorators = null;
+        DECLARATIONS.clear();
+    }
+
+    private static String defaultDecorators() {
+        String declaration = defaultDecorators;
+        if (declaration == null) {
+            declaration = getConfigValueAsString(getUiDefaults(), KEY_ERRORS_DECORATORS_DEFAULTS, DEFAULT_DECORATORS);
+            defaultDecorators = declaration;
+        }
+        return declaration;
+    }
+
+    private static List<Constructor<?>> resolve(String declaration) {
+        List<Constructor<?>> constructors = DECLARATIONS.get(declaration);
+        if (constructors == null) {
+            constructors = new ArrayList<Constructor<?>>();
+            for (String name : declaration.split(",")) {
+                name = name.trim();
+                if (name.length() == 0) continue;
+                constructors.add(constructorOf(classOf(name)));
+            }
+            constructors = Collections.unmodifiableList(constructors);
+            List<Constructor<?>> existing = DECLARATIONS.putIfAbsent(declaration, constructors);
+            if (existing != null) constructors = existing;
+        }
+        return constructors;
+    }
+
+    private static Class<?> classOf(String name) {
+        Class<?> decoratorClass = BUILTIN_DECORATORS.get(name);
+        if (decoratorClass != null) return decoratorClass;
+        try {
+            return ApplicationClassLoader.get().loadClass(name);
+        } catch (ClassNotFoundException e) {
+            throw new GriffonException(e);
+        }
+    }
+
+    private static Constructor<?> constructorOf(Class<?> decoratorClass) {
+        try {
+            return decoratorClass.getConstructor(GriffonApplication.class);
+        } catch (NoSuchMethodException e) {
+            try {
+                return decoratorClass.getConstructor();
+            } catch (NoSuchMethodException nsme) {
+                throw new GriffonException(nsme);
+            }
+        }
+    }
+
+    private ErrorDecorator instantiate(Constructor<?> constructor) {
+        try {
+            Object decorator = constructor.getParameterTypes().length == 1 ? constructor.newInstance(app) : constructor.newInstance();
+            return (ErrorDecorator) decorator;
+        } catch (InstantiationException e) {
+            throw new GriffonException(e);
+        } catch (IllegalAccessException e) {
+            throw new GriffonException(e);
+        } catch (InvocationTargetException e) {
+            throw new GriffonException(e);
+        }
+    }
+}
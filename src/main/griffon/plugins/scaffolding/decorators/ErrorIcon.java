@@ -0,0 +1,170 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.decorators;
+
+import griffon.util.ApplicationClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValueAsString;
+import static griffon.util.GriffonNameUtils.isBlank;
+
+/**
+ * Lazily loaded icon that keeps one device compatible copy per
+ * {@code GraphicsConfiguration} and scale factor.<p>
+ * The source image is resolved from UiDefaults; if a resource with an
+ * {@code @2x} suffix exists next to it, it is used for scaled devices.
+ *
+ * @author Andres Almiray
+ */
+public final class ErrorIcon {
+    private static final Logger LOG = LoggerFactory.getLogger(ErrorIcon.class);
+
+    public static final String KEY_ERRORS_DECORATORS_ICON_ACCEPT = "errors.decorators.icon.accept";
+    public static final String KEY_ERRORS_DECORATORS_ICON_CANCEL = "errors.decorators.icon.cancel";
+
+    public static final ErrorIcon ACCEPT = new ErrorIcon(KEY_ERRORS_DECORATORS_ICON_ACCEPT, "/griffon/plugins/scaffolding/decorators/accept.png");
+    public static final ErrorIcon CANCEL = new ErrorIcon(KEY_ERRORS_DECORATORS_ICON_CANCEL, "/griffon/plugins/scaffolding/decorators/cancel.png");
+
+    private static final String HIDPI_SUFFIX = "@2x";
+
+    private final String configKey;
+    private final String defaultLocation;
+    private final Map<GraphicsConfiguration, Map<Double, Image>> images = new WeakHashMap<GraphicsConfiguration, Map<Double, Image>>();
+    private boolean loaded;
+    private BufferedImage source;
+    private BufferedImage hidpiSource;
+
+    private ErrorIcon(String configKey, String defaultLocation) {
+        this.configKey = configKey;
+        this.defaultLocation = defaultLocation;
+    }
+
+    public int getIconWidth() {
+        load();
+        return source != null ? source.getWidth() : 0;
+    }
+
+    public int getIconHeight() {
+        load();
+        return source != null ? source.getHeight() : 0;
+    }
+
+    public void paint(Graphics2D g2, int x, int y) {
+        load();
+        if (source == null) return;
+        AffineTransform transform = g2.getTransform();
+        double scale = Math.max(Math.abs(transform.getScaleX()), Math.abs(transform.getScaleY()));
+        Image image = imageFor(g2.getDeviceConfiguration(), scale);
+        g2.drawImage(image, x, y, source.getWidth(), source.getHeight(), null);
+    }
+
+    public synchronized void preload() {
+        load();
+    }
+
+    public synchronized void reset() {
+        loaded = false;
+        source = null;
+        hidpiSource = null;
+        images.clear();
+    }
+
+    private synchronized Image imageFor(GraphicsConfiguration configuration, double scale) {
+        if (configuration == null) return source;
+        Map<Double, Image> scaled = images.get(configuration);
+        if (scaled == null) {
+            scaled = new HashMap<Double, Image>();
+            images.put(configuration, scaled);
+        }
+        Image image = scaled.get(scale);
+        if (image == null) {
+            image = createCompatibleImage(configuration, scale);
+            scaled.put(scale, image);
+        }
+        return image;
+    }
+
+    private Image createCompatibleImage(GraphicsConfiguration configuration, double scale) {
+        BufferedImage base = scale > 1d && hidpiSource != null ? hidpiSource : source;
+        int width = Math.max(1, (int) Math.ceil(source.getWidth() * Math.max(scale, 1d)));
+        int height = Math.max(1, (int) Math.ceil(source.getHeight() * Math.max(scale, 1d)));
+        BufferedImage image = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.drawImage(base, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private synchronized void load() {
+        if (loaded) return;
+        loaded = true;
+        String location = getConfigValueAsString(getUiDefaults(), configKey, defaultLocation);
+        if (isBlank(location)) location = defaultLocation;
+        source = read(location);
+        if (source == null && !location.equals(defaultLocation)) {
+            source = read(defaultLocation);
+        }
+        if (source != null) {
+            int dot = location.lastIndexOf('.');
+            String hidpiLocation = dot > location.lastIndexOf('/') ? location.substring(0, dot) + HIDPI_SUFFIX + location.substring(dot) : location + HIDPI_SUFFIX;
+            URL hidpiResource = resolve(hidpiLocation);
+            if (hidpiResource != null) hidpiSource = read(hidpiLocation);
+        }
+    }
+
+    private BufferedImage read(String location) {
+        URL resource = resolve(location);
+        if (resource == null) {
+            LOG.warn("Could not find error decorator icon " + location);
+            return null;
+        }
+        try {
+            return ImageIO.read(resource);
+        } catch (IOException e) {
+            LOG.warn("Could not read error decorator icon " + location, e);
+            return null;
+        }
+    }
+
+    private static URL resolve(String location) {
+        URL resource = ErrorIcon.class.getResource(location);
+        if (resource == null) {
+            ClassLoader classLoader = ApplicationClassLoader.get();
+            if (classLoader != null) {
+                resource = classLoader.getResource(location.startsWith("/") ? location.substring(1) : location);
+            }
+        }
+        return resource;
+    }
+}
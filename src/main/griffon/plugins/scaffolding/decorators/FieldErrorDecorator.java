@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.decorators;
+
+import griffon.plugins.scaffolding.FieldState;
+import griffon.plugins.scaffolding.ScaffoldingContext;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+
+import javax.swing.JComponent;
+import java.awt.Graphics2D;
+
+/**
+ * An {@code ErrorDecorator} painted from the cached {@code FieldState} of its
+ * property.<p>
+ * Paint methods receive the decorated component with the graphics origin set
+ * at its top left corner. {@code installUI} and {@code uninstallUI} receive the
+ * host of the decoration: the {@code JXLayer} wrapping the component, or the
+ * component itself when decorations are painted by a form level overlay.
+ *
+ * @author Andres Almiray
+ */
+public interface FieldErrorDecorator<V extends JComponent> extends ErrorDecorator<V> {
+    void paintLayerWithErrors(Graphics2D g2, V view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState);
+
+    void paintLayerWithNoErrors(Graphics2D g2, V view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState);
+}
@@ -16,30 +16,25 @@
 
 package griffon.plugins.scaffolding.decorators;
 
+import griffon.plugins.scaffolding.FieldState;
 import griffon.plugins.scaffolding.ScaffoldingContext;
 import griffon.plugins.validation.constraints.ConstrainedProperty;
-import griffon.util.GriffonClassUtils;
 import org.jdesktop.jxlayer.JXLayer;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
 import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 
 import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
 import static griffon.util.ConfigUtils.getConfigValueAsString;
-import static griffon.util.GriffonNameUtils.isBlank;
 
 /**
  * @author Andres Almiray
  */
-public class IconErrorDecorator extends AbstractErrorDecorator<JComponent> {
+@Stateless
+public class IconErrorDecorator extends AbstractFieldErrorDecorator<JComponent> {
     public static final String KEY_ERRORS_DECORATORS_ICON_POSITION = "errors.decorators.icon.position";
-    private static BufferedImage ACCEPT_ICON;
-    private static BufferedImage CANCEL_ICON;
+    private static final int ICON_GAP = 4;
 
     private enum Position {
         TOP_LEFT,
@@ -48,86 +43,66 @@ public class IconErrorDecorator extends AbstractErrorDecorator<JComponent> {
         BOTTOM_RIGHT
     }
 
-    static {
-        try {
-            ACCEPT_ICON = ImageIO.read(IconErrorDecorator.class.getResource("/griffon/plugins/scaffolding/decorators/accept.png"));
-            CANCEL_ICON = ImageIO.read(IconErrorDecorator.class.getResource("/griffon/plugins/scaffolding/decorators/cancel.png"));
-        } catch (IOException e) {
-            // ignore?
-        }
-    }
-
-    private Position position;
+    private final Position position;
 
     public IconErrorDecorator() {
-        String posStr = getConfigValueAsString(getUiDefaults(), KEY_ERRORS_DECORATORS_ICON_POSITION, Position.TOP_LEFT.name());
+        position = resolvePosition(getConfigValueAsString(getUiDefaults(), KEY_ERRORS_DECORATORS_ICON_POSITION, Position.TOP_LEFT.name()));
+    }
+
+    private static Position resolvePosition(String posStr) {
         try {
-            position = Position.valueOf(posStr.toUpperCase().replace(" ", "_"));
+            return Position.valueOf(posStr.toUpperCase().replace(" ", "_"));
         } catch (Exception e) {
-            position = Position.TOP_LEFT;
+            return Position.TOP_LEFT;
         }
     }
 
     public void installUI(JComponent c) {
+        // only reserve room when the decoration is hosted by its own layer
+        if (!(c instanceof JXLayer)) return;
         JXLayer<JComponent> layer = (JXLayer<JComponent>) c;
         switch (position) {
             case TOP_LEFT:
             case BOTTOM_LEFT:
-                layer.setBorder(BorderFactory.createEmptyBorder(0, 4, 0, 0));
+                layer.setBorder(BorderFactory.createEmptyBorder(0, ICON_GAP, 0, 0));
                 break;
             case TOP_RIGHT:
             case BOTTOM_RIGHT:
-                layer.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 4));
+                layer.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, ICON_GAP));
         }
     }
 
     public void uninstallUI(JComponent c) {
+        if (!(c instanceof JXLayer)) return;
         JXLayer<JComponent> l = (JXLayer<JComponent>) c;
         l.setBorder(null);
     }
 
-    public void paintLayerWithNoErrors(Graphics2D g2, JXLayer<? extends JComponent> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
-        try {
-            Object propertyValue = GriffonClassUtils.getProperty(scaffoldingContext.getValidateable(), constrainedProperty.getPropertyName());
-            if (propertyValue == null || propertyValue instanceof CharSequence && isBlank(String.valueOf(propertyValue))) {
-                layer.getParent().repaint();
-            } else {
-                switch (position) {
-                    case TOP_LEFT:
-                        g2.drawImage(ACCEPT_ICON, 0, 0, null);
-                        break;
-                    case TOP_RIGHT:
-                        g2.drawImage(ACCEPT_ICON, layer.getWidth() - ACCEPT_ICON.getWidth() - 1, 0, null);
-                        break;
-                    case BOTTOM_LEFT:
-                        g2.drawImage(ACCEPT_ICON, 0, layer.getHeight() - ACCEPT_ICON.getHeight() - 1, null);
-                        break;
-                    case BOTTOM_RIGHT:
-                        g2.drawImage(ACCEPT_ICON, layer.getWidth() - ACCEPT_ICON.getWidth() - 1, layer.getHeight() - ACCEPT_ICON.getHeight() - 1, null);
-                }
-            }
-        } catch (IllegalAccessException e) {
-            // ignore
-        } catch (InvocationTargetException e) {
-            // ignore
-        } catch (NoSuchMethodException e) {
-            // ignore
-        }
+    public void paintLayerWithNoErrors(Graphics2D g2, JComponent view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
+        if (fieldState.isValueEmpty()) return;
+        paintIcon(g2, view, ErrorIcon.ACCEPT);
+    }
+
+    public void paintLayerWithErrors(Graphics2D g2, JComponent view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
+        paintIcon(g2, view, ErrorIcon.CANCEL);
     }
 
-    public void paintLayerWithErrors(Graphics2D g2, JXLayer<? extends JComponent> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
+    private void paintIcon(Graphics2D g2, JComponent view, ErrorIcon icon) {
+        int left = -ICON_GAP;
+        int right = view.getWidth() + ICON_GAP - icon.getIconWidth() - 1;
+        int bottom = view.getHeight() - icon.getIconHeight() - 1;
         switch (position) {
             case TOP_LEFT:
-                g2.drawImage(CANCEL_ICON, 0, 0, null);
+                icon.paint(g2, left, 0);
                 break;
             case TOP_RIGHT:
-                g2.drawImage(CANCEL_ICON, layer.getWidth() - CANCEL_ICON.getWidth() - 1, 0, null);
+                icon.paint(g2, right, 0);
                 break;
             case BOTTOM_LEFT:
-                g2.drawImage(CANCEL_ICON, 0, layer.getHeight() - CANCEL_ICON.getHeight() - 1, null);
+                icon.paint(g2, left, bottom);
                 break;
             case BOTTOM_RIGHT:
-                g2.drawImage(CANCEL_ICON, layer.getWidth() - CANCEL_ICON.getWidth() - 1, layer.getHeight() - CANCEL_ICON.getHeight() - 1, null);
+                icon.paint(g2, right, bottom);
         }
     }
-}
\ No newline at end of file
+}
@@ -17,10 +17,10 @@
 package griffon.plugins.scaffolding.decorators;
 
 import griffon.core.resources.formatters.ParseException;
+import griffon.plugins.scaffolding.FieldState;
 import griffon.plugins.scaffolding.ScaffoldingContext;
 import griffon.plugins.validation.constraints.ConstrainedProperty;
 import griffon.swing.formatters.ColorFormatter;
-import org.jdesktop.jxlayer.JXLayer;
 
 import javax.swing.JComponent;
 import java.awt.*;
@@ -31,31 +31,24 @@ import static griffon.util.ConfigUtils.getConfigValueAsString;
 /**
  * @author Andres Almiray
  */
-public class MaskErrorDecorator extends AbstractErrorDecorator<JComponent> {
+@Stateless
+public class MaskErrorDecorator extends AbstractFieldErrorDecorator<JComponent> {
     private static final String KEY_ERRORS_DECORATORS_MASK_COLOR = "errors.decorators.mask.color";
-    private Color color = Color.RED;
+    private final Color color;
 
-    @Override
-    public void installUI(JComponent c) {
-        String colorStr = getConfigValueAsString(getUiDefaults(), KEY_ERRORS_DECORATORS_MASK_COLOR, "#F00");
+    public MaskErrorDecorator() {
+        color = resolveColor(getConfigValueAsString(getUiDefaults(), KEY_ERRORS_DECORATORS_MASK_COLOR, "#F00"));
+    }
+
+    private static Color resolveColor(String colorStr) {
         try {
-            color = ColorFormatter.parseColor(colorStr);
+            return ColorFormatter.parseColor(colorStr);
         } catch (ParseException pe) {
-            color = Color.RED;
+            return Color.RED;
         }
     }
 
-    @Override
-    public void uninstallUI(JComponent c) {
-        color = null;
-    }
-
-    public void paintLayerWithErrors(Graphics2D g2, JXLayer<? extends JComponent> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
-        // to be in sync with the view if the layer has a border
-        Insets layerInsets = layer.getInsets();
-        g2.translate(layerInsets.left, layerInsets.top);
-
-        JComponent view = layer.getView();
+    public void paintLayerWithErrors(Graphics2D g2, JComponent view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
         // To prevent painting on view's border
         Insets insets = view.getInsets();
         g2.clip(new Rectangle(insets.left, insets.top,
@@ -64,6 +57,6 @@ public class MaskErrorDecorator extends AbstractErrorDecorator<JComponent> {
 
         g2.setColor(color);
         g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, .2f));
-        g2.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+        g2.fillRect(0, 0, view.getWidth(), view.getHeight());
     }
 }
\ No newline at end of file
@@ -16,39 +16,47 @@
 
 package griffon.plugins.scaffolding.decorators;
 
+import griffon.plugins.scaffolding.FieldState;
 import griffon.plugins.scaffolding.ScaffoldingContext;
-import griffon.plugins.validation.FieldObjectError;
 import griffon.plugins.validation.constraints.ConstrainedProperty;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
-import org.jdesktop.jxlayer.JXLayer;
 
 import javax.swing.JComponent;
 import java.awt.Graphics2D;
-import java.util.List;
 
 /**
  * @author Andres Almiray
  */
-public class TooltipErrorDecorator extends AbstractErrorDecorator<JComponent> {
-    private String toolTipText = null;
+@Stateless
+public class TooltipErrorDecorator extends AbstractFieldErrorDecorator<JComponent> {
+    // the original tooltip is kept on the component so one instance can serve every field
+    private static final String ORIGINAL_TOOLTIP_TEXT = TooltipErrorDecorator.class.getName() + ".toolTipText";
 
     @Override
     public void installUI(JComponent c) {
-        toolTipText = c.getToolTipText();
+        JComponent view = viewOf(c);
+        view.putClientProperty(ORIGINAL_TOOLTIP_TEXT, view.getToolTipText());
     }
 
     @Override
     public void uninstallUI(JComponent c) {
-        toolTipText = null;
+        JComponent view = viewOf(c);
+        updateToolTipText(view, (String) view.getClientProperty(ORIGINAL_TOOLTIP_TEXT));
+        view.putClientProperty(ORIGINAL_TOOLTIP_TEXT, null);
     }
 
-    public void paintLayerWithNoErrors(Graphics2D g2, JXLayer<? extends JComponent> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
-        layer.getView().setToolTipText(toolTipText);
+    public void paintLayerWithNoErrors(Graphics2D g2, JComponent view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
+        updateToolTipText(view, (String) view.getClientProperty(ORIGINAL_TOOLTIP_TEXT));
     }
 
-    public void paintLayerWithErrors(Graphics2D g2, JXLayer<? extends JComponent> layer, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty) {
-        List<FieldObjectError> fieldErrors = scaffoldingContext.getValidateable().getErrors().getFieldErrors(constrainedProperty.getPropertyName());
-        String[] errorMessages = scaffoldingContext.resolveFieldErrorMessages(fieldErrors);
-        layer.getView().setToolTipText(DefaultGroovyMethods.join(errorMessages, "\n"));
+    public void paintLayerWithErrors(Graphics2D g2, JComponent view, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState fieldState) {
+        updateToolTipText(view, DefaultGroovyMethods.join(fieldState.getMessages(), "\n"));
+    }
+
+    private void updateToolTipText(JComponent view, String text) {
+        String current = view.getToolTipText();
+        if (current == null ? text != null : !current.equals(text)) {
+            view.setToolTipText(text);
+        }
     }
 }
\ No newline at end of file
@@ -17,58 +17,68 @@
 package griffon.plugins.scaffolding.factories
 
 import griffon.jxlayer.factory.JXLayerFactory
+import griffon.plugins.scaffolding.SwingScaffoldingContext
 import griffon.plugins.scaffolding.decorators.ErrorDecorator
-import griffon.plugins.scaffolding.decorators.IconErrorDecorator
-import griffon.plugins.scaffolding.decorators.MaskErrorDecorator
-import griffon.plugins.scaffolding.decorators.TooltipErrorDecorator
+import griffon.plugins.scaffolding.decorators.ErrorDecoratorRegistry
+import griffon.plugins.scaffolding.decorators.FieldErrorDecorator
 import griffon.plugins.scaffolding.nodes.CompositeLayerUI
+import griffon.plugins.scaffolding.nodes.FormLayerUI
 import org.jdesktop.jxlayer.JXLayer
 
-import griffon.util.ApplicationClassLoader
-
 import javax.swing.JComponent
-
-import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults
-import static griffon.util.ConfigUtils.getConfigValueAsString
+import java.awt.Container
 
 /**
  * @author Andres Almiray
  */
 class ErrorDecoratorFactory extends JXLayerFactory {
+    static final String DECORATOR_REGISTRY = 'errorDecoratorRegistry'
+
     @Override
     Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) throws InstantiationException, IllegalAccessException {
-        Object node = new JXLayer()
+        List<ErrorDecorator> decorators = decoratorRegistry(builder).create(attributes.remove('decorators'))
+        builder.context.decorators = decorators
 
-        builder.context.decorators = attributes.remove('decorators')
+        FormLayerUI formLayerUI = FormErrorDecoratorFactory.formLayerUI(builder)
+        // decorators written against the layer based methods keep a layer of their own
+        if (formLayerUI && decorators.every { it instanceof FieldErrorDecorator }) {
+            // decorations are painted by the form overlay; add the widget straight to its container
+            return new FormField(container: builder.current, formLayerUI: formLayerUI)
+        }
 
-        node
+        new JXLayer()
     }
 
     @Override
     void setChild(FactoryBuilderSupport builder, Object parent, Object child) {
-        if (child instanceof JComponent) {
+        if (!(child instanceof JComponent)) return
+        if (parent instanceof FormField) {
+            parent.view = child
+            def constraints = builder.context.remove('constraints')
+            if (constraints != null) {
+                parent.container.add(child, constraints)
+            } else {
+                parent.container.add(child)
+            }
+        } else {
             super.setChild(builder, parent, child)
         }
     }
 
     @Override
     void onNodeCompleted(FactoryBuilderSupport builder, Object parent, Object node) {
-        List<ErrorDecorator> decorators = []
-        String configuredDecorators = builder.context.decorators ?: getConfigValueAsString(getUiDefaults(), 'errors.decorators.defaults', 'icon, tooltip')
-        if (configuredDecorators) {
-            configuredDecorators.split(',').collect(decorators) { String decorator ->
-                decorator = decorator.trim()
-                switch (decorator) {
-                    case 'icon': return new IconErrorDecorator()
-                    case 'mask': return new MaskErrorDecorator()
-                    case 'tooltip': return new TooltipErrorDecorator()
-                    default:
-                        Class decoratorClass = ApplicationClassLoader.get().loadClass(decorator)
-                        return (ErrorDecorator) decoratorClass.newInstance(builder.app)
-                }
+        List<ErrorDecorator> decorators = builder.context.decorators
+
+        if (node instanceof FormField) {
+            if (node.view) {
+                node.formLayerUI.addField(node.view, builder.getVariable('constrainedProperty'), decorators)
+                index(builder, node.view, FormErrorDecoratorFactory.formLayer(builder))
             }
+            return
         }
 
+        if (node.view) index(builder, node.view, node)
+
         node.setUI(new CompositeLayerUI(
             builder.getVariable('scaffoldingContext'),
             builder.getVariable('constrainedProperty'),
@@ -77,4 +87,31 @@ class ErrorDecoratorFactory extends JXLayerFactory {
 
         super.onNodeCompleted(builder, parent, node)
     }
+
+    private static void index(FactoryBuilderSupport builder, JComponent view, JComponent decorationHost) {
+        def scaffoldingContext = builder.variables.get('scaffoldingContext')
+        if (!(scaffoldingContext instanceof SwingScaffoldingContext)) return
+        String propertyName = builder.variables.get('propertyName')
+        def labeler = builder.variables.get(propertyName + '_labeler')
+        def editor = builder.variables.get(propertyName)
+        scaffoldingContext.formIndex.register(propertyName,
+            labeler instanceof JComponent ? labeler : null,
+            editor instanceof JComponent ? editor : view,
+            decorationHost)
+    }
+
+    static ErrorDecoratorRegistry decoratorRegistry(FactoryBuilderSupport builder) {
+        ErrorDecoratorRegistry registry = (ErrorDecoratorRegistry) builder.variables.get(DECORATOR_REGISTRY)
+        if (registry == null) {
+            registry = new ErrorDecoratorRegistry(builder.app)
+            builder.setVariable(DECORATOR_REGISTRY, registry)
+        }
+        registry
+    }
+
+    static class FormField {
+        Container container
+        FormLayerUI formLayerUI
+        JComponent view
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.factories
+
+import griffon.jxlayer.factory.JXLayerFactory
+import griffon.plugins.scaffolding.nodes.FormLayerUI
+import org.jdesktop.jxlayer.JXLayer
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults
+import static griffon.util.ConfigUtils.getConfigValueAsString
+
+/**
+ * Wraps a form with a single layer. When {@code errors.decorators.overlay}
+ * is set to {@code 'form'} every nested {@code errorDecorator} node paints
+ * through this layer instead of wrapping its widget with a layer of its own.
+ *
+ * @author Andres Almiray
+ */
+class FormErrorDecoratorFactory extends JXLayerFactory {
+    static final String FORM_LAYER_UI = 'formLayerUI'
+    static final String FORM_LAYER = 'formLayer'
+    static final String OVERLAY_FORM = 'form'
+
+    @Override
+    Object newInstance(FactoryBuilderSupport builder, Object name, Object value, Map attributes) throws InstantiationException, IllegalAccessException {
+        JXLayer node = new JXLayer()
+
+        FormLayerUI formLayerUI = null
+        if (isFormOverlay((String) attributes.remove('overlay'))) {
+            formLayerUI = new FormLayerUI(builder.getVariable('scaffoldingContext'))
+        }
+        builder.context.previousFormLayerUI = formLayerUI(builder)
+        builder.context.previousFormLayer = formLayer(builder)
+        builder.setVariable(FORM_LAYER_UI, formLayerUI)
+        builder.setVariable(FORM_LAYER, formLayerUI ? node : null)
+        builder.context.formLayerUI = formLayerUI
+
+        node
+    }
+
+    @Override
+    void onNodeCompleted(FactoryBuilderSupport builder, Object parent, Object node) {
+        if (builder.context.formLayerUI) node.setUI(builder.context.formLayerUI)
+        builder.setVariable(FORM_LAYER_UI, builder.context.previousFormLayerUI)
+        builder.setVariable(FORM_LAYER, builder.context.previousFormLayer)
+        super.onNodeCompleted(builder, parent, node)
+    }
+
+    /**
+     * Whether decorations are painted by a form level overlay, as set by the
+     * given value or else by {@code errors.decorators.overlay}.
+     */
+    static boolean isFormOverlay(String overlay = null) {
+        overlay = overlay ?: getConfigValueAsString(getUiDefaults(), 'errors.decorators.overlay', 'layer')
+        OVERLAY_FORM == overlay?.trim()
+    }
+
+    static FormLayerUI formLayerUI(FactoryBuilderSupport builder) {
+        (FormLayerUI) builder.variables.get(FORM_LAYER_UI)
+    }
+
+    static JXLayer formLayer(FactoryBuilderSupport builder) {
+        (JXLayer) builder.variables.get(FORM_LAYER)
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.models;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * Read-only combo box model over shared {@code IndexedListData}; only the
+ * selection belongs to the model.
+ *
+ * @author Andres Almiray
+ */
+public class IndexedComboBoxModel extends AbstractListModel implements ComboBoxModel {
+    private final IndexedListData data;
+    private Object selectedItem;
+
+    public IndexedComboBoxModel(IndexedListData data) {
+        this.data = data;
+        // like DefaultComboBoxModel, start on the first choice
+        if (data.size() > 0) selectedItem = data.get(0);
+    }
+
+    public IndexedListData getData() {
+        return data;
+    }
+
+    public int getSize() {
+        return data.size();
+    }
+
+    public Object getElementAt(int index) {
+        return index >= 0 && index < data.size() ? data.get(index) : null;
+    }
+
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    public void setSelectedItem(Object item) {
+        if (selectedItem == null ? item == null : selectedItem.equals(item)) return;
+        selectedItem = item;
+        fireContentsChanged(this, -1, -1);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.models;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+
+/**
+ * Type-ahead for combo boxes backed by {@code IndexedListData}. Keys typed
+ * in quick succession form a prefix; typing the same single key again moves
+ * to the next element starting with it.
+ *
+ * @author Andres Almiray
+ */
+public class IndexedKeySelectionManager implements JComboBox.KeySelectionManager {
+    private static final long TYPE_AHEAD_TIMEOUT = 1000L;
+
+    private final IndexedListData data;
+    private final StringBuilder prefix = new StringBuilder();
+    private long lastKeyTime;
+
+    public IndexedKeySelectionManager(IndexedListData data) {
+        this.data = data;
+    }
+
+    public int selectionForKey(char key, ComboBoxModel model) {
+        if (model.getSize() != data.size()) return -1;
+
+        long now = System.currentTimeMillis();
+        if (now - lastKeyTime > TYPE_AHEAD_TIMEOUT) prefix.setLength(0);
+        lastKeyTime = now;
+
+        char c = Character.toLowerCase(key);
+        boolean repeated = prefix.length() == 1 && prefix.charAt(0) == c;
+        if (!repeated) prefix.append(c);
+
+        int current = data.indexOf(model.getSelectedItem());
+        return data.indexOfPrefix(prefix.toString(), current, repeated);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read-only view over a list of choices, such as an {@code inList}
+ * constraint or the constants of an enum, with constant time lookup of an
+ * element's position and a sorted index for case insensitive prefix search.
+ * Both indexes are built on first use. Instances are immutable and meant to
+ * be shared by every form that displays the same choices.
+ *
+ * @author Andres Almiray
+ */
+public final class IndexedListData {
+    private static final ConcurrentMap<Class<?>, IndexedListData> ENUMS = new ConcurrentHashMap<Class<?>, IndexedListData>();
+    private static final ConcurrentMap<Class<?>, IndexedListData> NULLABLE_ENUMS = new ConcurrentHashMap<Class<?>, IndexedListData>();
+
+    private final List<?> values;
+    private Map<Object, Integer> positions;
+    private String[] sortedKeys;
+    private int[] sortedIndexes;
+    private int[] sortedPositions;
+
+    public static IndexedListData forEnum(Class<? extends Enum> enumType, boolean nullable) {
+        ConcurrentMap<Class<?>, IndexedListData> cache = nullable ? NULLABLE_ENUMS : ENUMS;
+        IndexedListData data = cache.get(enumType);
+        if (data == null) {
+            List<Object> values = new ArrayList<Object>();
+            if (nullable) values.add(null);
+            values.addAll(Arrays.asList(enumType.getEnumConstants()));
+            data = new IndexedListData(values);
+            IndexedListData existing = cache.putIfAbsent(enumType, data);
+            if (existing != null) data = existing;
+        }
+        return data;
+    }
+
+    public IndexedListData(List<?> values) {
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    public List<?> getValues() {
+        return values;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public Object get(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Returns the position of the first occurrence of the given value, or -1.
+     */
+    public int indexOf(Object value) {
+        Integer position = positions().get(value);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Returns the position of an element whose text starts with the given
+     * prefix, ignoring case, or -1 if there is none. Matches are visited in
+     * alphabetical order: if {@code current} matches it is returned unless
+     * {@code next} is set, in which case the following match is returned,
+     * wrapping around.
+     */
+    public int indexOfPrefix(String prefix, int current, boolean next) {
+        if (prefix == null) return -1;
+        buildSortedIndex();
+        String key = fold(prefix);
+        int from = lowerBound(key);
+        if (from >= sortedKeys.length || !sortedKeys[from].startsWith(key)) return -1;
+        int to = from;
+        while (to < sortedKeys.length && sortedKeys[to].startsWith(key)) to++;
+
+        if (current >= 0 && current < sortedPositions.length) {
+            int position = sortedPositions[current];
+            if (position >= from && position < to) {
+                if (!next) return current;
+                return sortedIndexes[position + 1 < to ? position + 1 : from];
+            }
+        }
+        return sortedIndexes[from];
+    }
+
+    // folds case one char at a time, like the key selection manager, so that
+    // keys do not depend on the default locale
+    private static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKeys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private synchronized Map<Object, Integer> positions() {
+        if (positions == null) {
+            Map<Object, Integer> map = new HashMap<Object, Integer>(values.size() * 4 / 3 + 1);
+            int index = 0;
+            for (Object value : values) {
+                if (!map.containsKey(value)) map.put(value, index);
+                index++;
+            }
+            positions = map;
+        }
+        return positions;
+    }
+
+    private synchronized void buildSortedIndex() {
+        if (sortedKeys != null) return;
+        final String[] keys = new String[values.size()];
+        Integer[] order = new Integer[values.size()];
+        int index = 0;
+        for (Object value : values) {
+            // null choices sort first and never match a typed prefix
+            keys[index] = value != null ? fold(String.valueOf(value)) : "";
+            order[index] = index;
+            index++;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                int result = keys[a].compareTo(keys[b]);
+                return result != 0 ? result : a.compareTo(b);
+            }
+        });
+
+        String[] sorted = new String[keys.length];
+        int[] indexes = new int[keys.length];
+        int[] sortedPositions = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = keys[order[i]];
+            indexes[i] = order[i];
+            sortedPositions[order[i]] = i;
+        }
+        this.sortedIndexes = indexes;
+        this.sortedPositions = sortedPositions;
+        this.sortedKeys = sorted;
+    }
+}
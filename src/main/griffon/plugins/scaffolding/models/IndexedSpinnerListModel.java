@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.models;
+
+import javax.swing.SpinnerListModel;
+import java.util.List;
+
+/**
+ * Spinner model over shared {@code IndexedListData}. Keeps the
+ * {@code SpinnerListModel} type so spinners still get a list editor, but
+ * locates values through the shared index instead of scanning the list.
+ *
+ * @author Andres Almiray
+ */
+public class IndexedSpinnerListModel extends SpinnerListModel {
+    private IndexedListData data;
+    private int index;
+
+    public IndexedSpinnerListModel(IndexedListData data, Object value) {
+        super(data.getValues());
+        this.data = data;
+        if (value != null) {
+            index = data.indexOf(value);
+            if (index < 0) throw new IllegalArgumentException("invalid sequence element");
+        }
+    }
+
+    public IndexedListData getData() {
+        return data;
+    }
+
+    @Override
+    public List<?> getList() {
+        return data.getValues();
+    }
+
+    @Override
+    public void setList(List<?> list) {
+        if (list == null || list.isEmpty()) throw new IllegalArgumentException("invalid list");
+        if (list == data.getValues()) return;
+        data = new IndexedListData(list);
+        index = 0;
+        fireStateChanged();
+    }
+
+    @Override
+    public Object getValue() {
+        return data.get(index);
+    }
+
+    @Override
+    public void setValue(Object value) {
+        int position = data.indexOf(value);
+        if (position < 0) throw new IllegalArgumentException("invalid sequence element");
+        if (position != index) {
+            index = position;
+            fireStateChanged();
+        }
+    }
+
+    @Override
+    public Object getNextValue() {
+        return index + 1 < data.size() ? data.get(index + 1) : null;
+    }
+
+    @Override
+    public Object getPreviousValue() {
+        return index > 0 ? data.get(index - 1) : null;
+    }
+}
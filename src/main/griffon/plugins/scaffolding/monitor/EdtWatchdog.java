@@ -0,0 +1,182 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.EventQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValueAsBoolean;
+import static griffon.util.ConfigUtils.getConfigValueAsInt;
+
+/**
+ * Detects stalls of the event dispatch thread by posting a heartbeat to it
+ * and waiting for it to run. When the heartbeat is late by more than the
+ * threshold, the stall is logged with the stack of the event dispatch thread
+ * and the scaffolding operations it is running, innermost first, as
+ * reported to {@link Monitor}.<p>
+ * Heartbeats are processed by nested event loops too, so a modal dialog
+ * waiting for input is not reported as a stall.
+ *
+ * @author Andres Almiray
+ */
+public final class EdtWatchdog implements MonitorListener, Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(EdtWatchdog.class);
+
+    public static final String KEY_WATCHDOG_ENABLED = "watchdog.enabled";
+    public static final String KEY_WATCHDOG_THRESHOLD = "watchdog.threshold";
+    public static final String KEY_WATCHDOG_INTERVAL = "watchdog.interval";
+    public static final int DEFAULT_THRESHOLD = 500;
+    public static final int DEFAULT_INTERVAL = 100;
+
+    private static EdtWatchdog installed;
+
+    private final long threshold;
+    private final long interval;
+    private volatile Thread eventDispatchThread;
+    // innermost operation running on the event dispatch thread
+    private volatile Monitor.Scope uiScope;
+    private volatile boolean running;
+    private Thread checker;
+
+    public static boolean isEnabled() {
+        return getConfigValueAsBoolean(getUiDefaults(), KEY_WATCHDOG_ENABLED, false);
+    }
+
+    public static synchronized EdtWatchdog install() {
+        uninstall();
+        installed = new EdtWatchdog(
+            getConfigValueAsInt(getUiDefaults(), KEY_WATCHDOG_THRESHOLD, DEFAULT_THRESHOLD),
+            getConfigValueAsInt(getUiDefaults(), KEY_WATCHDOG_INTERVAL, DEFAULT_INTERVAL));
+        installed.start();
+        return installed;
+    }
+
+    public static synchronized void uninstall() {
+        if (installed == null) return;
+        installed.stop();
+        installed = null;
+    }
+
+    public EdtWatchdog(long threshold, long interval) {
+        this.threshold = Math.max(1L, threshold);
+        this.interval = Math.max(1L, interval);
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        Monitor.addListener(this);
+        checker = new Thread(this, "scaffolding-edt-watchdog");
+        checker.setDaemon(true);
+        checker.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        Monitor.removeListener(this);
+        if (checker != null) {
+            checker.interrupt();
+            checker = null;
+        }
+        uiScope = null;
+    }
+
+    public void run() {
+        try {
+            while (running) {
+                final CountDownLatch heartbeat = new CountDownLatch(1);
+                long posted = System.nanoTime();
+                EventQueue.invokeLater(new Runnable() {
+                    public void run() {
+                        eventDispatchThread = Thread.currentThread();
+                        heartbeat.countDown();
+                    }
+                });
+                if (!heartbeat.await(threshold, TimeUnit.MILLISECONDS)) {
+                    reportStall();
+                    heartbeat.await();
+                    long stalled = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - posted);
+                    LOG.warn("Event dispatch thread resumed after " + stalled + "ms");
+                }
+                Thread.sleep(interval);
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+
+    private void reportStall() {
+        StringBuilder message = new StringBuilder("Event dispatch thread stalled for more than ")
+            .append(threshold).append("ms");
+        Monitor.Scope scope = uiScope;
+        if (scope != null) {
+            message.append(" during ").append(describe(scope));
+        } else {
+            message.append(" outside of scaffolding operations");
+        }
+
+        Thread thread = eventDispatchThread;
+        if (thread == null) {
+            LOG.warn(message.toString());
+            return;
+        }
+        EdtStall stall = new EdtStall(thread.getName());
+        stall.setStackTrace(thread.getStackTrace());
+        LOG.warn(message.toString(), stall);
+    }
+
+    private static String describe(Monitor.Scope scope) {
+        StringBuilder description = new StringBuilder();
+        for (Monitor.Scope s = scope; s != null; s = s.getParent()) {
+            if (description.length() > 0) description.append(" < ");
+            description.append(s);
+        }
+        return description.toString();
+    }
+
+    public void operationStarted(Monitor.Scope scope) {
+        if (isUIThread(scope)) uiScope = scope;
+    }
+
+    public void operationFinished(Monitor.Scope scope, long duration) {
+        if (isUIThread(scope)) uiScope = scope.getParent();
+    }
+
+    public void eventOccurred(Monitor.Event event, Object subject) {
+        // only operations are tracked
+    }
+
+    private boolean isUIThread(Monitor.Scope scope) {
+        Thread thread = eventDispatchThread;
+        return thread != null ? scope.getThread() == thread : EventQueue.isDispatchThread();
+    }
+
+    /**
+     * Carries the stack of the event dispatch thread at the time a stall was detected.
+     */
+    private static final class EdtStall extends Throwable {
+        private EdtStall(String threadName) {
+            super("Stack of " + threadName);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValueAsBoolean;
+import static griffon.util.ConfigUtils.getConfigValueAsInt;
+import static griffon.util.ConfigUtils.getConfigValueAsString;
+import static griffon.util.GriffonNameUtils.isBlank;
+
+/**
+ * Records every operation and event reported to {@link Monitor} as a
+ * timestamped span, so the cascade triggered by a single component event
+ * (source change, target update, value change, validation, field state
+ * change, repaint) can be inspected step by step.<p>
+ * Spans are kept in a bounded ring buffer and exported as Chrome trace-event
+ * JSON, which can be loaded in {@code chrome://tracing} or Perfetto. Each
+ * span carries its subject and the outermost operation of its chain, which
+ * makes fan-out from a single field easy to spot.
+ *
+ * @author Andres Almiray
+ */
+public final class EventTracer implements EventTracerMBean, MonitorListener {
+    private static final Logger LOG = LoggerFactory.getLogger(EventTracer.class);
+    private static EventTracer installed;
+    private static Thread shutdownHook;
+
+    public static final String KEY_TRACING_ENABLED = "tracing.enabled";
+    public static final String KEY_TRACING_CAPACITY = "tracing.capacity";
+    public static final String KEY_TRACING_OUTPUT = "tracing.output";
+    public static final int DEFAULT_CAPACITY = 100000;
+    public static final String OBJECT_NAME = "griffon.plugins.scaffolding:type=EventTracer";
+
+    private final Record[] records;
+    private final long origin = System.nanoTime();
+    private int next;
+    private int count;
+    private long dropped;
+
+    public static boolean isEnabled() {
+        return getConfigValueAsBoolean(getUiDefaults(), KEY_TRACING_ENABLED, false);
+    }
+
+    /**
+     * Registers a new instance with the platform MBean server and starts
+     * listening to {@link Monitor}. When {@code tracing.output} is set the
+     * trace is written to that file on shutdown or on {@link #uninstall()}.
+     */
+    public static synchronized EventTracer install() {
+        uninstall();
+        final EventTracer tracer = new EventTracer(getConfigValueAsInt(getUiDefaults(), KEY_TRACING_CAPACITY, DEFAULT_CAPACITY));
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(tracer, name);
+        } catch (JMException e) {
+            LOG.warn("Could not register scaffolding event tracer MBean", e);
+        }
+        final String output = getConfigValueAsString(getUiDefaults(), KEY_TRACING_OUTPUT, "");
+        if (!isBlank(output)) {
+            shutdownHook = new Thread("scaffolding-trace-writer") {
+                public void run() {
+                    tracer.dump(output);
+                }
+            };
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+        Monitor.addListener(tracer);
+        installed = tracer;
+        return tracer;
+    }
+
+    public static synchronized void uninstall() {
+        if (installed == null) return;
+        Monitor.removeListener(installed);
+        installed = null;
+        if (shutdownHook != null) {
+            try {
+                // write the trace now, the hook would never run once removed
+                if (Runtime.getRuntime().removeShutdownHook(shutdownHook)) shutdownHook.run();
+            } catch (IllegalStateException e) {
+                // already shutting down, the hook runs anyway
+            }
+            shutdownHook = null;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException e) {
+            LOG.warn("Could not unregister scaffolding event tracer MBean", e);
+        }
+    }
+
+    public static synchronized EventTracer getInstalled() {
+        return installed;
+    }
+
+    public EventTracer(int capacity) {
+        records = new Record[Math.max(1, capacity)];
+    }
+
+    public void operationStarted(Monitor.Scope scope) {
+        // spans are recorded when operations finish
+    }
+
+    public void operationFinished(Monitor.Scope scope, long duration) {
+        Monitor.Scope root = scope;
+        while (root.getParent() != null) root = root.getParent();
+        add(new Record(scope.getOperation().name(), scope.toString(), scope.getSubjectName(),
+            root != scope ? root.toString() : null, scope.getThread(), scope.getStartTime(), duration));
+    }
+
+    public void eventOccurred(Monitor.Event event, Object subject) {
+        String subjectName = Monitor.subjectName(subject);
+        Monitor.Scope root = Monitor.current();
+        while (root != null && root.getParent() != null) root = root.getParent();
+        add(new Record(event.name(), subjectName != null ? event + " " + subjectName : event.name(), subjectName,
+            root != null ? root.toString() : null, Thread.currentThread(), System.nanoTime(), -1L));
+    }
+
+    public int getCapacity() {
+        return records.length;
+    }
+
+    public synchronized int getRecordCount() {
+        return count;
+    }
+
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < records.length; i++) records[i] = null;
+        next = 0;
+        count = 0;
+        dropped = 0L;
+    }
+
+    public String dump(String path) {
+        File file = new File(path).getAbsoluteFile();
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            writeChromeTrace(writer);
+            writer.flush();
+            LOG.info("Wrote scaffolding event trace to " + file);
+        } catch (IOException e) {
+            LOG.warn("Could not write scaffolding event trace to " + file, e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        return file.getPath();
+    }
+
+    /**
+     * Writes the recorded spans, oldest first, in the Chrome trace-event
+     * format. Timestamps are microseconds since this tracer was created.
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        Record[] snapshot = snapshot();
+        String pid = processId();
+        Map<Long, String> threads = new LinkedHashMap<Long, String>();
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (Record record : snapshot) {
+            if (!threads.containsKey(record.threadId)) threads.put(record.threadId, record.threadName);
+            first = separate(writer, first);
+            writer.write("{\"name\":");
+            quote(writer, record.name);
+            writer.write(",\"cat\":");
+            quote(writer, record.category);
+            if (record.duration < 0L) {
+                writer.write(",\"ph\":\"i\",\"s\":\"t\"");
+            } else {
+                writer.write(",\"ph\":\"X\",\"dur\":");
+                writer.write(micros(record.duration));
+            }
+            writer.write(",\"ts\":");
+            writer.write(micros(Math.max(0L, record.startTime - origin)));
+            writer.write(",\"pid\":" + pid + ",\"tid\":" + record.threadId + ",\"args\":{\"subject\":");
+            quote(writer, record.subject);
+            writer.write(",\"cause\":");
+            quote(writer, record.cause);
+            writer.write("}}");
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            first = separate(writer, first);
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + pid + ",\"tid\":" + thread.getKey() + ",\"args\":{\"name\":");
+            quote(writer, thread.getValue());
+            writer.write("}}");
+        }
+        writer.write("]}");
+    }
+
+    private synchronized void add(Record record) {
+        if (count == records.length) {
+            dropped++;
+        } else {
+            count++;
+        }
+        records[next] = record;
+        next = (next + 1) % records.length;
+    }
+
+    private synchronized Record[] snapshot() {
+        Record[] snapshot = new Record[count];
+        int start = (next - count + records.length) % records.length;
+        for (int i = 0; i < count; i++) {
+            snapshot[i] = records[(start + i) % records.length];
+        }
+        return snapshot;
+    }
+
+    private static boolean separate(Writer writer, boolean first) throws IOException {
+        if (!first) writer.write(',');
+        writer.write('\n');
+        return false;
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1000L) + "." + String.valueOf(1000L + nanos % 1000L).substring(1);
+    }
+
+    private static void quote(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String processId() {
+        // the runtime name is "pid@host" on most virtual machines
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int at = name.indexOf('@');
+        String pid = at > 0 ? name.substring(0, at) : name;
+        for (int i = 0; i < pid.length(); i++) {
+            if (!Character.isDigit(pid.charAt(i))) return "1";
+        }
+        return pid.length() > 0 ? pid : "1";
+    }
+
+    private static final class Record {
+        private final String category;
+        private final String name;
+        private final String subject;
+        private final String cause;
+        private final long threadId;
+        private final String threadName;
+        private final long startTime;
+        // negative for instant events
+        private final long duration;
+
+        private Record(String category, String name, String subject, String cause, Thread thread, long startTime, long duration) {
+            this.category = category;
+            this.name = name;
+            this.subject = subject;
+            this.cause = cause;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.startTime = startTime;
+            this.duration = duration;
+        }
+    }
+}
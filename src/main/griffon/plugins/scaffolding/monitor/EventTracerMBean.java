@@ -0,0 +1,39 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+/**
+ * Management interface of {@link EventTracer}.
+ *
+ * @author Andres Almiray
+ */
+public interface EventTracerMBean {
+    int getCapacity();
+
+    int getRecordCount();
+
+    long getDroppedCount();
+
+    /**
+     * Writes the recorded trace as Chrome trace-event JSON to the given file
+     * and returns its absolute path.
+     */
+    String dump(String path);
+
+    void clear();
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with power of two microsecond buckets.
+ * Percentiles are reported as the upper bound of their bucket.
+ *
+ * @author Andres Almiray
+ */
+final class Histogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        long micros = Math.max(0L, nanos / 1000L);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0d : total.get() / (double) n / 1000000d;
+    }
+
+    double getMaxMillis() {
+        return max.get() / 1000000d;
+    }
+
+    double percentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) return 0d;
+        long threshold = (long) Math.ceil(n * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) return (i == 0 ? 1L : 1L << i) / 1000d;
+        }
+        return getMaxMillis();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0L);
+        count.set(0L);
+        total.set(0L);
+        max.set(0L);
+    }
+
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+            getCount(), getMeanMillis(), percentileMillis(0.5d), percentileMillis(0.9d), percentileMillis(0.99d), getMaxMillis());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Instrumentation hooks for the scaffolding runtime.<p>
+ * Instrumented code brackets an operation with {@link #begin} and
+ * {@link #end}, and reports discrete events with {@link #event}. While no
+ * {@link MonitorListener} is registered {@code begin} returns {@code null}
+ * and every hook costs a single volatile read.
+ *
+ * @author Andres Almiray
+ */
+public final class Monitor {
+    public enum Operation {
+        SOURCE_CHANGE,
+        UPDATE_TARGET,
+        UPDATE_SOURCE,
+        VALUE_CHANGE,
+        VALIDATION,
+        FIELD_STATE_CHANGE,
+        LAYER_PAINT,
+        PAINT_DECORATOR,
+        FORM_BUILD,
+        TEMPLATE_BUILD,
+        CSS_DECORATE
+    }
+
+    public enum Event {
+        BINDING_CREATED,
+        BINDING_DISPOSED,
+        REPAINT_REQUESTED
+    }
+
+    private static final MonitorListener[] NO_LISTENERS = new MonitorListener[0];
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<Scope>();
+    private static volatile MonitorListener[] listeners = NO_LISTENERS;
+
+    private Monitor() {
+
+    }
+
+    public static boolean isEnabled() {
+        return listeners.length != 0;
+    }
+
+    public static synchronized void addListener(MonitorListener listener) {
+        if (listener == null) return;
+        List<MonitorListener> list = new ArrayList<MonitorListener>(Arrays.asList(listeners));
+        if (!list.contains(listener)) list.add(listener);
+        listeners = list.toArray(new MonitorListener[list.size()]);
+    }
+
+    public static synchronized void removeListener(MonitorListener listener) {
+        List<MonitorListener> list = new ArrayList<MonitorListener>(Arrays.asList(listeners));
+        list.remove(listener);
+        listeners = list.isEmpty() ? NO_LISTENERS : list.toArray(new MonitorListener[list.size()]);
+    }
+
+    /**
+     * Starts timing an operation on the current thread. Returns {@code null}
+     * when monitoring is disabled; the result must be passed to {@link #end}.
+     */
+    public static Scope begin(Operation operation, Object subject) {
+        MonitorListener[] current = listeners;
+        if (current.length == 0) return null;
+        Scope scope = new Scope(operation, subject, CURRENT.get());
+        CURRENT.set(scope);
+        for (MonitorListener listener : current) {
+            listener.operationStarted(scope);
+        }
+        return scope;
+    }
+
+    public static void end(Scope scope) {
+        if (scope == null) return;
+        long duration = System.nanoTime() - scope.startTime;
+        CURRENT.set(scope.parent);
+        for (MonitorListener listener : listeners) {
+            listener.operationFinished(scope, duration);
+        }
+    }
+
+    public static void event(Event event, Object subject) {
+        MonitorListener[] current = listeners;
+        if (current.length == 0) return;
+        for (MonitorListener listener : current) {
+            listener.eventOccurred(event, subject);
+        }
+    }
+
+    /**
+     * Returns the innermost operation running on the current thread, if any.
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    public static final class Scope {
+        private final Operation operation;
+        private final Object subject;
+        private final Scope parent;
+        private final Thread thread;
+        private final long startTime;
+
+        private Scope(Operation operation, Object subject, Scope parent) {
+            this.operation = operation;
+            this.subject = subject;
+            this.parent = parent;
+            this.thread = Thread.currentThread();
+            this.startTime = System.nanoTime();
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public Object getSubject() {
+            return subject;
+        }
+
+        public String getSubjectName() {
+            return subjectName(subject);
+        }
+
+        public Scope getParent() {
+            return parent;
+        }
+
+        public Thread getThread() {
+            return thread;
+        }
+
+        /**
+         * Returns the value of {@code System.nanoTime()} when the operation started.
+         */
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public String toString() {
+            String name = getSubjectName();
+            return name != null ? operation + " " + name : operation.toString();
+        }
+    }
+
+    public static String subjectName(Object subject) {
+        if (subject == null) return null;
+        if (subject instanceof Class) return ((Class) subject).getName();
+        if (subject instanceof CharSequence) return subject.toString();
+        if (subject instanceof ConstrainedProperty) return ((ConstrainedProperty) subject).getPropertyName();
+        return subject.getClass().getName();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+/**
+ * Receives the operations and events reported to {@link Monitor}.
+ * Callbacks run on the thread performing the operation and must be cheap.
+ *
+ * @author Andres Almiray
+ */
+public interface MonitorListener {
+    void operationStarted(Monitor.Scope scope);
+
+    void operationFinished(Monitor.Scope scope, long duration);
+
+    void eventOccurred(Monitor.Event event, Object subject);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts occurrences in one second slots over a short sliding window.
+ *
+ * @author Andres Almiray
+ */
+final class Rate {
+    private static final int SLOTS = 16;
+    // completed seconds averaged by getPerSecond
+    private static final int WINDOW = 10;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOTS);
+    private final AtomicLong total = new AtomicLong();
+
+    void mark() {
+        long second = currentSecond();
+        int slot = (int) (second % SLOTS);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            counts.set(slot, 0L);
+        }
+        counts.incrementAndGet(slot);
+        total.incrementAndGet();
+    }
+
+    long getTotal() {
+        return total.get();
+    }
+
+    double getPerSecond() {
+        long second = currentSecond();
+        long sum = 0;
+        for (int i = 1; i <= WINDOW; i++) {
+            long target = second - i;
+            int slot = (int) (target % SLOTS);
+            if (seconds.get(slot) == target) sum += counts.get(slot);
+        }
+        return sum / (double) WINDOW;
+    }
+
+    void reset() {
+        for (int i = 0; i < SLOTS; i++) {
+            counts.set(i, 0L);
+            seconds.set(i, 0L);
+        }
+        total.set(0L);
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000L;
+    }
+}
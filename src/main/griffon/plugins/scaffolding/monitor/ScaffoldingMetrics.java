@@ -0,0 +1,216 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static griffon.plugins.scaffolding.ScaffoldingUtils.getUiDefaults;
+import static griffon.util.ConfigUtils.getConfigValueAsBoolean;
+
+/**
+ * Collects the operations reported to {@link Monitor} into counters and
+ * latency histograms, and exposes them as a JMX MBean.
+ *
+ * @author Andres Almiray
+ */
+public final class ScaffoldingMetrics implements ScaffoldingMetricsMBean, MonitorListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ScaffoldingMetrics.class);
+    private static ScaffoldingMetrics installed;
+
+    public static final String KEY_METRICS_ENABLED = "metrics.enabled";
+    public static final String OBJECT_NAME = "griffon.plugins.scaffolding:type=ScaffoldingMetrics";
+
+    private final AtomicLong bindingsCreated = new AtomicLong();
+    private final AtomicLong bindingsDisposed = new AtomicLong();
+    private final Rate updateTargets = new Rate();
+    private final Rate updateSources = new Rate();
+    private final Histogram validationTime = new Histogram();
+    private final Histogram cssDecorateTime = new Histogram();
+    private final ConcurrentMap<String, Histogram> decoratorPaintTimes = new ConcurrentHashMap<String, Histogram>();
+    private final ConcurrentMap<String, Histogram> formBuildTimes = new ConcurrentHashMap<String, Histogram>();
+
+    public static boolean isEnabled() {
+        return getConfigValueAsBoolean(getUiDefaults(), KEY_METRICS_ENABLED, false);
+    }
+
+    /**
+     * Registers a new instance with the platform MBean server and starts
+     * listening to {@link Monitor}. Any instance registered before is replaced.
+     */
+    public static synchronized ScaffoldingMetrics install() {
+        uninstall();
+        ScaffoldingMetrics metrics = new ScaffoldingMetrics();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            LOG.warn("Could not register scaffolding metrics MBean", e);
+        }
+        Monitor.addListener(metrics);
+        installed = metrics;
+        return metrics;
+    }
+
+    public static synchronized void uninstall() {
+        if (installed == null) return;
+        Monitor.removeListener(installed);
+        installed = null;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException e) {
+            LOG.warn("Could not unregister scaffolding metrics MBean", e);
+        }
+    }
+
+    public static synchronized ScaffoldingMetrics getInstalled() {
+        return installed;
+    }
+
+    public void operationStarted(Monitor.Scope scope) {
+        // durations are recorded when operations finish
+    }
+
+    public void operationFinished(Monitor.Scope scope, long duration) {
+        switch (scope.getOperation()) {
+            case UPDATE_TARGET:
+                updateTargets.mark();
+                break;
+            case UPDATE_SOURCE:
+                updateSources.mark();
+                break;
+            case VALIDATION:
+                validationTime.record(duration);
+                break;
+            case PAINT_DECORATOR:
+                histogram(decoratorPaintTimes, scope.getSubject()).record(duration);
+                break;
+            case FORM_BUILD:
+                histogram(formBuildTimes, scope.getSubject()).record(duration);
+                break;
+            case CSS_DECORATE:
+                cssDecorateTime.record(duration);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void eventOccurred(Monitor.Event event, Object subject) {
+        switch (event) {
+            case BINDING_CREATED:
+                bindingsCreated.incrementAndGet();
+                break;
+            case BINDING_DISPOSED:
+                bindingsDisposed.incrementAndGet();
+                break;
+            default:
+                break;
+        }
+    }
+
+    public long getBindingsCreated() {
+        return bindingsCreated.get();
+    }
+
+    public long getBindingsDisposed() {
+        return bindingsDisposed.get();
+    }
+
+    public long getActiveBindings() {
+        return bindingsCreated.get() - bindingsDisposed.get();
+    }
+
+    public long getUpdateTargetCount() {
+        return updateTargets.getTotal();
+    }
+
+    public double getUpdateTargetsPerSecond() {
+        return updateTargets.getPerSecond();
+    }
+
+    public long getUpdateSourceCount() {
+        return updateSources.getTotal();
+    }
+
+    public double getUpdateSourcesPerSecond() {
+        return updateSources.getPerSecond();
+    }
+
+    public String getValidationTime() {
+        return validationTime.toString();
+    }
+
+    public String[] getDecoratorPaintTimes() {
+        return summarize(decoratorPaintTimes);
+    }
+
+    public String[] getFormBuildTimes() {
+        return summarize(formBuildTimes);
+    }
+
+    public String getCssDecorateTime() {
+        return cssDecorateTime.toString();
+    }
+
+    public void reset() {
+        bindingsCreated.set(0L);
+        bindingsDisposed.set(0L);
+        updateTargets.reset();
+        updateSources.reset();
+        validationTime.reset();
+        cssDecorateTime.reset();
+        decoratorPaintTimes.clear();
+        formBuildTimes.clear();
+    }
+
+    private static Histogram histogram(ConcurrentMap<String, Histogram> histograms, Object subject) {
+        String key = String.valueOf(Monitor.subjectName(subject));
+        Histogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = new Histogram();
+            Histogram existing = histograms.putIfAbsent(key, histogram);
+            if (existing != null) histogram = existing;
+        }
+        return histogram;
+    }
+
+    private static String[] summarize(Map<String, Histogram> histograms) {
+        List<String> lines = new ArrayList<String>();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<String, Histogram>(histograms).entrySet()) {
+            lines.add(entry.getKey() + ": " + entry.getValue());
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package griffon.plugins.scaffolding.monitor;
+
+/**
+ * Management interface of {@link ScaffoldingMetrics}. Latency attributes
+ * summarize a histogram as count, mean, p50, p90, p99 and max.
+ *
+ * @author Andres Almiray
+ */
+public interface ScaffoldingMetricsMBean {
+    long getBindingsCreated();
+
+    long getBindingsDisposed();
+
+    long getActiveBindings();
+
+    long getUpdateTargetCount();
+
+    double getUpdateTargetsPerSecond();
+
+    long getUpdateSourceCount();
+
+    double getUpdateSourcesPerSecond();
+
+    String getValidationTime();
+
+    String[] getDecoratorPaintTimes();
+
+    String[] getFormBuildTimes();
+
+    String getCssDecorateTime();
+
+    void reset();
+}
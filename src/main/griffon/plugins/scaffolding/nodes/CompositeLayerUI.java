@@ -16,8 +16,14 @@
 
 package griffon.plugins.scaffolding.nodes;
 
+import griffon.plugins.scaffolding.FieldState;
+import griffon.plugins.scaffolding.FieldStateListener;
 import griffon.plugins.scaffolding.ScaffoldingContext;
+import griffon.plugins.scaffolding.ScaffoldingContextAware;
+import griffon.plugins.scaffolding.SwingScaffoldingContext;
 import griffon.plugins.scaffolding.decorators.ErrorDecorator;
+import griffon.plugins.scaffolding.decorators.FieldErrorDecorator;
+import griffon.plugins.scaffolding.monitor.Monitor;
 import griffon.plugins.validation.constraints.ConstrainedProperty;
 import org.jdesktop.jxlayer.JXLayer;
 import org.jdesktop.jxlayer.plaf.AbstractLayerUI;
@@ -29,10 +35,20 @@ import java.util.List;
 /**
  * @author Andres Almiray
  */
-public class CompositeLayerUI<V extends JComponent> extends AbstractLayerUI<V> {
-    private final ScaffoldingContext scaffoldingContext;
+public class CompositeLayerUI<V extends JComponent> extends AbstractLayerUI<V> implements ScaffoldingContextAware {
+    private ScaffoldingContext scaffoldingContext;
     private final ConstrainedProperty constrainedProperty;
     private final ErrorDecorator<V>[] decorators;
+    private JComponent layer;
+
+    private final FieldStateListener fieldStateListener = new FieldStateListener() {
+        public void fieldStateChanged(FieldState oldState, FieldState newState) {
+            if (layer != null) {
+                Monitor.event(Monitor.Event.REPAINT_REQUESTED, constrainedProperty);
+                layer.repaint();
+            }
+        }
+    };
 
     public CompositeLayerUI(ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, ErrorDecorator<V>... decorators) {
         this.scaffoldingContext = scaffoldingContext;
@@ -46,16 +62,38 @@ public class CompositeLayerUI<V extends JComponent> extends AbstractLayerUI<V> {
         this.decorators = decorators.toArray(new ErrorDecorator[decorators.size()]);
     }
 
+    public void setScaffoldingContext(ScaffoldingContext scaffoldingContext) {
+        if (layer != null) removeFieldStateListener();
+        this.scaffoldingContext = scaffoldingContext;
+        if (layer != null) addFieldStateListener();
+    }
+
+    private void addFieldStateListener() {
+        if (scaffoldingContext instanceof SwingScaffoldingContext) {
+            ((SwingScaffoldingContext) scaffoldingContext).addFieldStateListener(constrainedProperty.getPropertyName(), fieldStateListener);
+        }
+    }
+
+    private void removeFieldStateListener() {
+        if (scaffoldingContext instanceof SwingScaffoldingContext) {
+            ((SwingScaffoldingContext) scaffoldingContext).removeFieldStateListener(constrainedProperty.getPropertyName(), fieldStateListener);
+        }
+    }
+
     @Override
     public void installUI(JComponent component) {
         for (ErrorDecorator decorator : decorators) {
             decorator.installUI(component);
         }
         super.installUI(component);
+        layer = component;
+        addFieldStateListener();
     }
 
     @Override
     public void uninstallUI(JComponent component) {
+        removeFieldStateListener();
+        layer = null;
         for (ErrorDecorator decorator : decorators) {
             decorator.uninstallUI(component);
         }
@@ -63,20 +101,54 @@ public class CompositeLayerUI<V extends JComponent> extends AbstractLayerUI<V> {
     }
 
     protected boolean hasErrors(JXLayer<? extends JComponent> layer) {
-        String propertyName = constrainedProperty.getPropertyName();
-        return scaffoldingContext.getValidateable().getErrors().getFieldErrorCount(propertyName) != 0;
+        return fieldState(layer).hasErrors();
+    }
+
+    protected FieldState fieldState(JXLayer<? extends JComponent> layer) {
+        return FieldState.of(scaffoldingContext, constrainedProperty.getPropertyName());
     }
 
     @Override
     protected void paintLayer(Graphics2D g2, JXLayer<? extends V> layer) {
         super.paintLayer(g2, layer);
-        if (hasErrors(layer)) {
-            for (ErrorDecorator decorator : decorators) {
-                decorator.paintLayerWithErrors(g2, layer, scaffoldingContext, constrainedProperty);
-            }
-        } else {
-            for (ErrorDecorator decorator : decorators) {
-                decorator.paintLayerWithNoErrors(g2, layer, scaffoldingContext, constrainedProperty);
+        V view = layer.getView();
+        if (view == null) return;
+        Monitor.Scope scope = Monitor.begin(Monitor.Operation.LAYER_PAINT, constrainedProperty);
+        try {
+            paintDecorators(g2, layer, view, view.getX(), view.getY(), scaffoldingContext, constrainedProperty, fieldState(layer), decorators);
+        } finally {
+            Monitor.end(scope);
+        }
+    }
+
+    /**
+     * Paints every decorator of a field. Decorators that only implement the
+     * layer based {@code ErrorDecorator} methods are painted in layer
+     * coordinates, and skipped when the field has no layer of its own.
+     */
+    static <V extends JComponent> void paintDecorators(Graphics2D g2, JXLayer<? extends V> layer, V view, int x, int y, ScaffoldingContext scaffoldingContext, ConstrainedProperty constrainedProperty, FieldState state, ErrorDecorator<V>[] decorators) {
+        for (ErrorDecorator<V> decorator : decorators) {
+            if (!(decorator instanceof FieldErrorDecorator) && layer == null) continue;
+            // each decorator gets its own graphics so clips and composites do not leak
+            Graphics2D g = (Graphics2D) g2.create();
+            Monitor.Scope scope = Monitor.begin(Monitor.Operation.PAINT_DECORATOR, decorator.getClass());
+            try {
+                if (decorator instanceof FieldErrorDecorator) {
+                    FieldErrorDecorator<V> fieldDecorator = (FieldErrorDecorator<V>) decorator;
+                    g.translate(x, y);
+                    if (state.hasErrors()) {
+                        fieldDecorator.paintLayerWithErrors(g, view, scaffoldingContext, constrainedProperty, state);
+                    } else {
+                        fieldDecorator.paintLayerWithNoErrors(g, view, scaffoldingContext, constrainedProperty, state);
+                    }
+                } else if (state.hasErrors()) {
+                    decorator.paintLayerWithErrors(g, layer, scaffoldingContext, constrainedProperty);
+                } else {
+                    decorator.paintLayerWithNoErrors(g, layer, scaffoldingContext, constrainedProperty);
+                }
+            } finally {
+                Monitor.end(scope);
+                g.dispose();
             }
         }
     }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package griffon.plugins.scaffolding.nodes;
+
+import griffon.plugins.scaffolding.FieldState;
+import griffon.plugins.scaffolding.FieldStateListener;
+import griffon.plugins.scaffolding.ScaffoldingContext;
+import griffon.plugins.scaffolding.ScaffoldingContextAware;
+import griffon.plugins.scaffolding.SwingScaffoldingContext;
+import griffon.plugins.scaffolding.decorators.ErrorDecorator;
+import griffon.plugins.scaffolding.monitor.Monitor;
+import griffon.plugins.validation.constraints.ConstrainedProperty;
+import org.jdesktop.jxlayer.JXLayer;
+import org.jdesktop.jxlayer.plaf.AbstractLayerUI;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paints the error decorations of every registered field of a form from a
+ * single layer placed on top of the whole form.
+ *
+ * @author Andres Almiray
+ */
+public class FormLayerUI extends AbstractLayerUI<JComponent> implements ScaffoldingContextAware {
+    // room around a field that decorations may paint into
+    private static final int DECORATION_MARGIN = 20;
+
+    private ScaffoldingContext scaffoldingContext;
+    private final List<Field> fields = new ArrayList<Field>();
+    private JComponent layer;
+
+    public FormLayerUI(ScaffoldingContext scaffoldingContext) {
+        this.scaffoldingContext = scaffoldingContext;
+    }
+
+    public void setScaffoldingContext(ScaffoldingContext scaffoldingContext) {
+        for (Field field : fields) {
+            field.removeFieldStateListener();
+        }
+        this.scaffoldingContext = scaffoldingContext;
+        for (Field field : fields) {
+            field.addFieldStateListener();
+        }
+    }
+
+    public void addField(JComponent view, ConstrainedProperty constrainedProperty, List<ErrorDecorator<JComponent>> decorators) {
+        Field field = new Field(view, constrainedProperty, decorators.toArray(new ErrorDecorator[decorators.size()]));
+        fields.add(field);
+        field.install();
+        repaint(field);
+    }
+
+    @Override
+    public void installUI(JComponent component) {
+        super.installUI(component);
+        layer = component;
+    }
+
+    @Override
+    public void uninstallUI(JComponent component) {
+        for (Field field : fields) {
+            field.uninstall();
+        }
+        fields.clear();
+        layer = null;
+        super.uninstallUI(component);
+    }
+
+    @Override
+    protected void paintLayer(Graphics2D g2, JXLayer<? extends JComponent> l) {
+        super.paintLayer(g2, l);
+        Rectangle clip = g2.getClipBounds();
+        for (Field field : fields) {
+            Rectangle bounds = field.boundsIn(l);
+            if (bounds == null) continue;
+            if (clip != null && !clip.intersects(grow(bounds))) continue;
+            Monitor.Scope scope = Monitor.begin(Monitor.Operation.LAYER_PAINT, field.constrainedProperty);
+            try {
+                CompositeLayerUI.<JComponent>paintDecorators(g2, null, field.view, bounds.x, bounds.y, scaffoldingContext, field.constrainedProperty, field.fieldState(), field.decorators);
+            } finally {
+                Monitor.end(scope);
+            }
+        }
+    }
+
+    private void repaint(Field field) {
+        if (layer == null) return;
+        Rectangle bounds = field.boundsIn(layer);
+        if (bounds == null) return;
+        Rectangle area = grow(bounds);
+        Monitor.event(Monitor.Event.REPAINT_REQUESTED, field.constrainedProperty);
+        layer.repaint(area.x, area.y, area.width, area.height);
+    }
+
+    private static Rectangle grow(Rectangle bounds) {
+        Rectangle area = new Rectangle(bounds);
+        area.grow(DECORATION_MARGIN, DECORATION_MARGIN);
+        return area;
+    }
+
+    private class Field implements FieldStateListener {
+        private final JComponent view;
+        private final ConstrainedProperty constrainedProperty;
+        private final ErrorDecorator<JComponent>[] decorators;
+
+        private Field(JComponent view, ConstrainedProperty constrainedProperty, ErrorDecorator<JComponent>[] decorators) {
+            this.view = view;
+            this.constrainedProperty = constrainedProperty;
+            this.decorators = decorators;
+        }
+
+        private void install() {
+            for (ErrorDecorator<JComponent> decorator : decorators) {
+                decorator.installUI(view);
+            }
+            addFieldStateListener();
+        }
+
+        private void uninstall() {
+            removeFieldStateListener();
+            for (ErrorDecorator<JComponent> decorator : decorators) {
+                decorator.uninstallUI(view);
+            }
+        }
+
+        private void addFieldStateListener() {
+            if (scaffoldingContext instanceof SwingScaffoldingContext) {
+                ((SwingScaffoldingContext) scaffoldingContext).addFieldStateListener(constrainedProperty.getPropertyName(), this);
+            }
+        }
+
+        private void removeFieldStateListener() {
+            if (scaffoldingContext instanceof SwingScaffoldingContext) {
+                ((SwingScaffoldingContext) scaffoldingContext).removeFieldStateListener(constrainedProperty.getPropertyName(), this);
+            }
+        }
+
+        public void fieldStateChanged(FieldState oldState, FieldState newState) {
+            repaint(this);
+        }
+
+        private FieldState fieldState() {
+            return FieldState.of(scaffoldingContext, constrainedProperty.getPropertyName());
+        }
+
+        private Rectangle boundsIn(JComponent target) {
+            if (!view.isVisible() || view.getParent() == null) return null;
+            return SwingUtilities.convertRectangle(view.getParent(), view.getBounds(), target);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package griffon.plugins.scaffolding.templates
 
-def valueHolder = scaffoldingContext.validateable."${propertyName}Property"()
+import griffon.plugins.scaffolding.FormPlan
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('checkBox', constrainedProperty)
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+def valueHolder = scaffoldingContext.valueHolder(propertyName)
+
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'checkBox')
 if (valueHolder.value != null) widgetAttributes.selected = valueHolder.value
 
 errorDecorator {
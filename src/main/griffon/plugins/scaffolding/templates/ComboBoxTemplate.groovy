@@ -1,21 +1,27 @@
 package griffon.plugins.scaffolding.templates
 
+import griffon.plugins.scaffolding.FormPlan
 import griffon.plugins.scaffolding.atoms.EnumValue
+import griffon.plugins.scaffolding.models.IndexedComboBoxModel
+import griffon.plugins.scaffolding.models.IndexedKeySelectionManager
+import griffon.plugins.scaffolding.models.IndexedListData
 
 import javax.swing.DefaultComboBoxModel
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('comboBox', constrainedProperty)
-def valueHolder = scaffoldingContext.validateable."${propertyName}Property"()
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'comboBox')
+def valueHolder = scaffoldingContext.valueHolder(propertyName)
 
 Map modelAttributes = [:]
 if (valueHolder.value != null) modelAttributes.value = valueHolder.value
 
-if (constrainedProperty.inList) {
-    widgetAttributes.model = new DefaultComboBoxModel(constrainedProperty.inList as Object[])
-} else if (valueHolder instanceof EnumValue) {
-    List values = constrainedProperty.nullable ? [null] : []
-    values.addAll(EnumSet.allOf(valueHolder.enumType))
-    widgetAttributes.model = new DefaultComboBoxModel(values as Object[])
+if (constrainedProperty.inList || valueHolder instanceof EnumValue) {
+    IndexedListData listData = formEntry.parameter('listData') {
+        constrainedProperty.inList ? new IndexedListData(constrainedProperty.inList) :
+            IndexedListData.forEnum(valueHolder.enumType, constrainedProperty.nullable)
+    }
+    widgetAttributes.model = new IndexedComboBoxModel(listData)
+    widgetAttributes.keySelectionManager = new IndexedKeySelectionManager(listData)
 } else {
     widgetAttributes.model = new DefaultComboBoxModel()
 }
@@ -1,14 +1,18 @@
 package griffon.plugins.scaffolding.templates
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('editorPane', constrainedProperty)
-widgetAttributes.editable = constrainedProperty.editable
-Map scrollPaneAttributes = widgetAttributes.remove('scrollPane') ?: [:]
+import griffon.plugins.scaffolding.FormPlan
+
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'editorPane')
+widgetAttributes.editable = formEntry.editable
+Map scrollPaneAttributes = [:]
+scrollPaneAttributes.putAll(widgetAttributes.remove('scrollPane') ?: [:])
 scrollPaneAttributes.constraints = widgetAttributes.remove('constraints')
 
 errorDecorator {
     scrollPane(scrollPaneAttributes) {
         editorPane(widgetAttributes)
         scaffoldingContext.bind(getVariable(propertyName), 'text',
-            scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+            scaffoldingContext.valueHolder(propertyName), constrainedProperty)
     }
 }
\ No newline at end of file
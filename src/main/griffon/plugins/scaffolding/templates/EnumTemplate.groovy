@@ -1,15 +1,19 @@
 package griffon.plugins.scaffolding.templates
 
-import javax.swing.DefaultComboBoxModel
+import griffon.plugins.scaffolding.FormPlan
+import griffon.plugins.scaffolding.models.IndexedComboBoxModel
+import griffon.plugins.scaffolding.models.IndexedKeySelectionManager
+import griffon.plugins.scaffolding.models.IndexedListData
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('comboBox', constrainedProperty)
-def valueHolder = scaffoldingContext.validateable."${propertyName}Property"()
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'comboBox')
+def valueHolder = scaffoldingContext.valueHolder(propertyName)
 
 Map modelAttributes = [:]
 if (valueHolder.value != null) modelAttributes.value = valueHolder.value
-List values = constrainedProperty.nullable ? [null] : []
-values.addAll(EnumSet.allOf(valueHolder.enumType))
-widgetAttributes.model = new DefaultComboBoxModel(values as Object[])
+IndexedListData listData = IndexedListData.forEnum(valueHolder.enumType, constrainedProperty.nullable)
+widgetAttributes.model = new IndexedComboBoxModel(listData)
+widgetAttributes.keySelectionManager = new IndexedKeySelectionManager(listData)
 
 errorDecorator {
     comboBox(widgetAttributes)
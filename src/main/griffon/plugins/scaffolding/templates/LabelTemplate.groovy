@@ -1,9 +1,12 @@
 package griffon.plugins.scaffolding.templates
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('label', constrainedProperty)
+import griffon.plugins.scaffolding.FormPlan
+
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'label')
 
 errorDecorator {
     label(widgetAttributes)
     scaffoldingContext.bind(getVariable(propertyName), 'text',
-        scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+        scaffoldingContext.valueHolder(propertyName), constrainedProperty)
 }
\ No newline at end of file
@@ -1,16 +1,20 @@
 package griffon.plugins.scaffolding.templates
 
-def valueHolder = scaffoldingContext.validateable."${propertyName}Property"()
+import griffon.plugins.scaffolding.FormPlan
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('slider', constrainedProperty)
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+def valueHolder = scaffoldingContext.valueHolder(propertyName)
 
-if (constrainedProperty.min != null && constrainedProperty.max != null) {
-    widgetAttributes.minimum = constrainedProperty.min
-    widgetAttributes.maximum = constrainedProperty.max
-} else if (constrainedProperty.range != null) {
-    widgetAttributes.minimum = constrainedProperty.range.from
-    widgetAttributes.maximum = constrainedProperty.range.to
-}
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'slider')
+
+widgetAttributes.putAll(formEntry.parameter('bounds') {
+    Map bounds = [:]
+    if (formEntry.minimum != null && formEntry.maximum != null) {
+        bounds.minimum = formEntry.minimum
+        bounds.maximum = formEntry.maximum
+    }
+    bounds.asImmutable()
+})
 
 widgetAttributes.value = valueHolder.value != null ? valueHolder.value : (widgetAttributes.minimum ?: 0)
 
@@ -1,23 +1,28 @@
 package griffon.plugins.scaffolding.templates
 
+import griffon.plugins.scaffolding.FormPlan
 import griffon.plugins.scaffolding.atoms.EnumValue
+import griffon.plugins.scaffolding.models.IndexedListData
+import griffon.plugins.scaffolding.models.IndexedSpinnerListModel
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('spinner', constrainedProperty)
-def valueHolder = scaffoldingContext.validateable."${propertyName}Property"()
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'spinner')
+def valueHolder = scaffoldingContext.valueHolder(propertyName)
 
 Map modelAttributes = [:]
 if (valueHolder.value != null) modelAttributes.value = valueHolder.value
 
-if (constrainedProperty.min != null && constrainedProperty.max != null) {
-    modelAttributes.minimum = constrainedProperty.min
-    modelAttributes.maximum = constrainedProperty.max
-} else if (constrainedProperty.range != null) {
-    modelAttributes.minimum = constrainedProperty.range.from
-    modelAttributes.maximum = constrainedProperty.range.to
-} else if (constrainedProperty.inList) {
-    modelAttributes.minimum = constrainedProperty.inList[0]
-    modelAttributes.maximum = constrainedProperty.inList[-1]
-}
+modelAttributes.putAll(formEntry.parameter('bounds') {
+    Map bounds = [:]
+    if (formEntry.minimum != null && formEntry.maximum != null) {
+        bounds.minimum = formEntry.minimum
+        bounds.maximum = formEntry.maximum
+    } else if (constrainedProperty.inList) {
+        bounds.minimum = constrainedProperty.inList[0]
+        bounds.maximum = constrainedProperty.inList[-1]
+    }
+    bounds.asImmutable()
+})
 modelAttributes.value = modelAttributes.value ?: modelAttributes.minimum
 if (modelAttributes.value == null) modelAttributes.remove('value')
 
@@ -27,16 +32,18 @@ if (Number.class.isAssignableFrom(valueHolder.valueType)) {
 } else if (Date.class.isAssignableFrom(valueHolder.valueType) || Calendar.class.isAssignableFrom(valueHolder.valueType)) {
     modelAttributes.start = modelAttributes.remove('minimum')
     modelAttributes.end = modelAttributes.remove('maximum')
-    modelAttributes.calendarField = widgetAttributes.constainsKey('calendarField') ? widgetAttributes.remove('calendarField') : Calendar.DAY_OF_MONTH
+    modelAttributes.calendarField = widgetAttributes.containsKey('calendarField') ? widgetAttributes.remove('calendarField') : Calendar.DAY_OF_MONTH
     widgetAttributes.model = spinnerDateModel(modelAttributes)
 } else {
-    if (constrainedProperty.inList) {
-        modelAttributes.list = constrainedProperty.inList
-    } else if (valueHolder instanceof EnumValue) {
-        modelAttributes.list = constrainedProperty.nullable ? [null] : []
-        modelAttributes.list.addAll(EnumSet.allOf(valueHolder.enumType))
+    if (constrainedProperty.inList || valueHolder instanceof EnumValue) {
+        IndexedListData listData = formEntry.parameter('listData') {
+            constrainedProperty.inList ? new IndexedListData(constrainedProperty.inList) :
+                IndexedListData.forEnum(valueHolder.enumType, constrainedProperty.nullable)
+        }
+        widgetAttributes.model = new IndexedSpinnerListModel(listData, modelAttributes.value)
+    } else {
+        widgetAttributes.model = spinnerListModel(modelAttributes)
     }
-    widgetAttributes.model = spinnerListModel(modelAttributes)
 }
 
 errorDecorator {
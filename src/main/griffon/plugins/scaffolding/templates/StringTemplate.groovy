@@ -1,32 +1,38 @@
 package griffon.plugins.scaffolding.templates
 
-int sizeThreshold = 250
+import griffon.plugins.scaffolding.FormPlan
 
-if (constrainedProperty.minSize >= sizeThreshold || constrainedProperty.maxSize >= sizeThreshold ||
-    constrainedProperty.size?.from >= sizeThreshold || constrainedProperty.size?.to >= sizeThreshold) {
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+boolean multiline = formEntry.parameter('multiline') {
+    int sizeThreshold = 250
+    constrainedProperty.minSize >= sizeThreshold || constrainedProperty.maxSize >= sizeThreshold ||
+        constrainedProperty.size?.from >= sizeThreshold || constrainedProperty.size?.to >= sizeThreshold
+}
+
+if (multiline) {
 
-    Map widgetAttributes = scaffoldingContext.widgetAttributes('textArea', constrainedProperty)
-    widgetAttributes.editable = constrainedProperty.editable
+    Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'textArea')
+    widgetAttributes.editable = formEntry.editable
     Map scrollPaneAttributes = [:]
-    scrollPaneAttributes.putAll(scaffoldingContext.widgetAttributes('scrollPane', constrainedProperty))
+    scrollPaneAttributes.putAll(formEntry.widgetAttributes(scaffoldingContext, 'scrollPane'))
     scrollPaneAttributes.putAll(widgetAttributes.remove('scrollPane') ?: [:])
     scrollPaneAttributes.constraints = widgetAttributes.remove('constraints')
 
     errorDecorator {
         scrollPane(scrollPaneAttributes) {
-            textArea(textAreaAttributes)
+            textArea(widgetAttributes)
             scaffoldingContext.bind(getVariable(propertyName), 'text',
-                scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+                scaffoldingContext.valueHolder(propertyName), constrainedProperty)
         }
     }
 } else {
-    String widgetNode = constrainedProperty.password ? 'passwordField' : 'textField'
-    Map widgetAttributes = scaffoldingContext.widgetAttributes(widgetNode, constrainedProperty)
-    widgetAttributes.editable = constrainedProperty.editable
+    String widgetNode = formEntry.password ? 'passwordField' : 'textField'
+    Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, widgetNode)
+    widgetAttributes.editable = formEntry.editable
 
     errorDecorator {
         "${widgetNode}"(widgetAttributes)
         scaffoldingContext.bind(getVariable(propertyName), 'text',
-            scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+            scaffoldingContext.valueHolder(propertyName), constrainedProperty)
     }
 }
@@ -1,9 +1,12 @@
 package griffon.plugins.scaffolding.templates
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('textArea', constrainedProperty)
-widgetAttributes.editable = constrainedProperty.editable
+import griffon.plugins.scaffolding.FormPlan
+
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'textArea')
+widgetAttributes.editable = formEntry.editable
 Map scrollPaneAttributes = [:]
-scrollPaneAttributes.putAll(scaffoldingContext.widgetAttributes('scrollPane', constrainedProperty))
+scrollPaneAttributes.putAll(formEntry.widgetAttributes(scaffoldingContext, 'scrollPane'))
 scrollPaneAttributes.putAll(widgetAttributes.remove('scrollPane') ?: [:])
 scrollPaneAttributes.constraints = widgetAttributes.remove('constraints')
 
@@ -11,6 +14,6 @@ errorDecorator {
     scrollPane(scrollPaneAttributes) {
         textArea(widgetAttributes)
         scaffoldingContext.bind(getVariable(propertyName), 'text',
-            scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+            scaffoldingContext.valueHolder(propertyName), constrainedProperty)
     }
 }
@@ -1,11 +1,14 @@
 package griffon.plugins.scaffolding.templates
 
-String widgetNode = constrainedProperty.password ? 'passwordField' : 'textField'
-Map widgetAttributes = scaffoldingContext.widgetAttributes(widgetNode, constrainedProperty)
-widgetAttributes.editable = constrainedProperty.editable
+import griffon.plugins.scaffolding.FormPlan
+
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+String widgetNode = formEntry.password ? 'passwordField' : 'textField'
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, widgetNode)
+widgetAttributes.editable = formEntry.editable
 
 errorDecorator {
     "${widgetNode}"(widgetAttributes)
     scaffoldingContext.bind(getVariable(propertyName), 'text',
-        scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+        scaffoldingContext.valueHolder(propertyName), constrainedProperty)
 }
\ No newline at end of file
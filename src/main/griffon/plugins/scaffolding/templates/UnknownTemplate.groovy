@@ -1,10 +1,13 @@
 package griffon.plugins.scaffolding.templates
 
-Map widgetAttributes = scaffoldingContext.widgetAttributes('textField', constrainedProperty)
-widgetAttributes.editable = constrainedProperty.editable
+import griffon.plugins.scaffolding.FormPlan
+
+FormPlan.Entry formEntry = FormPlan.entryOf(scaffoldingContext, propertyName)
+Map widgetAttributes = formEntry.widgetAttributes(scaffoldingContext, 'textField')
+widgetAttributes.editable = formEntry.editable
 
 errorDecorator {
     textField(widgetAttributes)
     scaffoldingContext.bind(getVariable(propertyName), 'text',
-        scaffoldingContext.validateable."${propertyName}Property"(), constrainedProperty)
+        scaffoldingContext.valueHolder(propertyName), constrainedProperty)
 }
\ No newline at end of file